@@ -2,8 +2,10 @@ package com.hourglass.jobclocksync;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JobClockSyncApplication {
     public static void main(String[] args) {
         SpringApplication.run(JobClockSyncApplication.class, args);
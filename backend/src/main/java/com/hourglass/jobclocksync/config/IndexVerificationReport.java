@@ -0,0 +1,115 @@
+package com.hourglass.jobclocksync.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Logs, once the application is ready, whether every derived repository finder is backed by an
+ * index. A finder is fully supported when an index starts with all of its fields (in any order),
+ * partially supported when an index starts with one of them, and unsupported otherwise - the
+ * latter are logged as warnings because they run as collection scans.
+ */
+@Component
+public class IndexVerificationReport {
+    
+    private static final Logger log = LoggerFactory.getLogger(IndexVerificationReport.class);
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${index-verification.enabled:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+        
+        int full = 0;
+        int partial = 0;
+        int missing = 0;
+        
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation repository = repositories.getRequiredRepositoryInformation(domainType);
+            List<List<String>> indexes = indexKeys(domainType);
+            
+            for (Method method : repository.getQueryMethods()) {
+                String finder = repository.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                Query query = method.getAnnotation(Query.class);
+                if (query != null && StringUtils.hasText(query.value())) {
+                    log.debug("Index verification skipped for {} (explicit @Query)", finder);
+                    continue;
+                }
+                
+                Set<String> fields = finderFields(method.getName(), domainType);
+                if (fields.isEmpty()) {
+                    continue;
+                }
+                
+                if (indexes.stream().anyMatch(keys -> coversAll(keys, fields))) {
+                    full++;
+                    log.debug("Index verification: {} {} is fully indexed", finder, fields);
+                } else if (indexes.stream().anyMatch(keys -> fields.contains(keys.get(0)))) {
+                    partial++;
+                    log.info("Index verification: {} {} is only partially indexed", finder, fields);
+                } else {
+                    missing++;
+                    log.warn("Index verification: {} {} has no supporting index on collection '{}'",
+                        finder, fields, mongoTemplate.getCollectionName(domainType));
+                }
+            }
+        }
+        
+        log.info("Index verification: {} finders fully indexed, {} partially indexed, {} without an index",
+            full, partial, missing);
+    }
+    
+    private List<List<String>> indexKeys(Class<?> domainType) {
+        return mongoTemplate.indexOps(domainType).getIndexInfo().stream()
+            .map(IndexInfo::getIndexFields)
+            .map(fields -> fields.stream().map(IndexField::getKey).collect(Collectors.toList()))
+            .filter(keys -> !keys.isEmpty())
+            .collect(Collectors.toList());
+    }
+    
+    private static Set<String> finderFields(String methodName, Class<?> domainType) {
+        PartTree tree = new PartTree(methodName, domainType);
+        Set<String> fields = new LinkedHashSet<>();
+        for (Part part : tree.getParts()) {
+            String path = part.getProperty().toDotPath();
+            fields.add("id".equals(path) ? "_id" : path);
+        }
+        return fields;
+    }
+    
+    // true if the index's leading keys are exactly the finder's fields, in any order
+    private static boolean coversAll(List<String> keys, Set<String> fields) {
+        return keys.size() >= fields.size() && fields.containsAll(keys.subList(0, fields.size()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.hourglass.jobclocksync.config;
+
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
+import com.hourglass.jobclocksync.security.JwtAuthenticationFilter;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Adds a {@code role} tag (vendor, company, admin or none) to the built-in HTTP request and repository
+ * invocation metrics, matching the tag on {@link ServiceMetricsAspect}'s timers.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    static final String NO_ROLE = "none";
+    
+    /**
+     * Role of the caller on the current thread; work handed to executor threads reports {@code none}.
+     */
+    static String currentRole() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getRole().name().toLowerCase();
+        }
+        return NO_ROLE;
+    }
+    
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                // The security context is already cleared when the request observation stops, so the
+                // filter leaves the role on the request
+                Object role = context.getCarrier().getAttribute(JwtAuthenticationFilter.ROLE_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context)
+                    .and(KeyValue.of("role", role != null ? role.toString() : NO_ROLE));
+            }
+        };
+    }
+    
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        return new DefaultRepositoryTagsProvider() {
+            @Override
+            public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+                return Tags.of(super.repositoryTags(invocation)).and("role", currentRole());
+            }
+        };
+    }
+}
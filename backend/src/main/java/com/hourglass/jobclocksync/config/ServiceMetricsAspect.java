@@ -0,0 +1,60 @@
+package com.hourglass.jobclocksync.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the {@code *Service} beans as {@code service.calls}, tagged with the
+ * service, method, caller role and an outcome that mirrors how the controllers map exceptions
+ * (not_found, conflict, invalid). Methods returning a Stream or Flux are timed until the pipeline is
+ * assembled, not until it is consumed.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    
+    static final String METRIC = "service.calls";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Around("execution(public * com.hourglass.jobclocksync.service.*Service.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("role", MetricsConfig.currentRole())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry));
+        }
+    }
+    
+    private static String outcome(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        if (e instanceof IllegalStateException) {
+            return "conflict";
+        }
+        if (e instanceof RuntimeException && e.getMessage() != null && e.getMessage().endsWith("not found")) {
+            return "not_found";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,289 @@
+package com.hourglass.jobclocksync.config;
+
+import com.hourglass.jobclocksync.dto.SlowQueryResponse;
+import com.hourglass.jobclocksync.util.QueryShapes;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command listener on both MongoDB clients that aggregates commands slower than
+ * {@code slow-query.threshold-ms} by query shape. For a sampled fraction of slow commands it
+ * re-issues the command as a {@code queryPlanner} explain on a background thread (at most once per
+ * shape every ten minutes) and records the winning plan; collection scans are logged as warnings.
+ * A command is only copied for explain when its shape has already been slow, its explain is due and
+ * it falls in the sample, so ordinary commands cost a shape computation and a map lookup.
+ */
+@Component
+public class SlowQueryLog implements CommandListener, MongoClientSettingsBuilderCustomizer {
+    
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    
+    private static final long EXPLAIN_INTERVAL_MS = TimeUnit.MINUTES.toMillis(10);
+    
+    // Driver-added fields that explain rejects or that belong to the original session
+    private static final Set<String> GENERIC_FIELDS = Set.of(
+        "$db", "lsid", "$clusterTime", "txnNumber", "startTransaction", "autocommit",
+        "$readPreference", "readConcern", "writeConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    
+    @Autowired
+    private ObjectProvider<MongoTemplate> mongoTemplate;
+    
+    @Value("${slow-query.threshold-ms:100}")
+    private long thresholdMs;
+    
+    @Value("${slow-query.explain-sample-rate:0.1}")
+    private double explainSampleRate;
+    
+    @Value("${slow-query.max-shapes:500}")
+    private int maxShapes;
+    
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    
+    // One explain at a time; further requests are dropped while the queue is full
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    
+    private record InFlight(String shape, String collection, BsonDocument command) {
+    }
+    
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+    
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        String shape = QueryShapes.shape(event.getCommandName(), command);
+        if (shape == null) {
+            return;
+        }
+        BsonValue collectionName = command.get(event.getCommandName());
+        String collection = collectionName != null && collectionName.isString() ? collectionName.asString().getValue() : "";
+        
+        // The event's document is only valid during this callback, so sampled commands keep a copy for explain
+        ShapeStats stats = shapes.get(key(collection, shape));
+        boolean sampled = stats != null && stats.explainDue(System.currentTimeMillis())
+            && ThreadLocalRandom.current().nextDouble() < explainSampleRate;
+        inFlight.put(event.getRequestId(), new InFlight(
+            shape,
+            collection,
+            sampled ? explainable(event.getCommandName(), command) : null));
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.MILLISECONDS));
+    }
+    
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getElapsedTime(TimeUnit.MILLISECONDS));
+    }
+    
+    /**
+     * Slowest shapes first, by total time spent.
+     */
+    public List<SlowQueryResponse> top(int limit) {
+        return shapes.values().stream()
+            .map(ShapeStats::toResponse)
+            .sorted(Comparator.comparingLong(SlowQueryResponse::getTotalMillis).reversed())
+            .limit(limit)
+            .toList();
+    }
+    
+    public void reset() {
+        shapes.clear();
+    }
+    
+    private void completed(int requestId, long elapsedMs) {
+        InFlight command = inFlight.remove(requestId);
+        if (command == null || elapsedMs < thresholdMs) {
+            return;
+        }
+        
+        String key = key(command.collection(), command.shape());
+        ShapeStats stats = shapes.get(key);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            stats = shapes.computeIfAbsent(key, k -> new ShapeStats(command.shape(), command.collection()));
+        }
+        stats.record(elapsedMs);
+        
+        if (command.command() != null && stats.claimExplain(System.currentTimeMillis())) {
+            ShapeStats explained = stats;
+            explainer.execute(() -> explain(command, explained));
+        }
+    }
+    
+    private static String key(String collection, String shape) {
+        return collection + " " + shape;
+    }
+    
+    private static BsonDocument explainable(String commandName, BsonDocument command) {
+        BsonDocument copy = command.clone();
+        copy.keySet().removeAll(GENERIC_FIELDS);
+        // explain accepts a single write statement
+        String statements = commandName.equals("update") ? "updates" : commandName.equals("delete") ? "deletes" : null;
+        if (statements != null && copy.getArray(statements, new BsonArray()).size() > 1) {
+            copy.put(statements, new BsonArray(List.of(copy.getArray(statements).get(0))));
+        }
+        return copy;
+    }
+    
+    private void explain(InFlight command, ShapeStats stats) {
+        try {
+            Document result = mongoTemplate.getObject().getDb().runCommand(
+                new BsonDocument("explain", command.command()).append("verbosity", new BsonString("queryPlanner")));
+            Document winningPlan = findWinningPlan(result);
+            if (winningPlan == null) {
+                return;
+            }
+            List<String> stages = new ArrayList<>();
+            collectStages(winningPlan, stages);
+            boolean collectionScan = stages.stream().anyMatch(stage -> stage.startsWith("COLLSCAN"));
+            if (stats.explained(String.join(" <- ", stages), collectionScan)) {
+                log.warn("Slow query runs as a collection scan on {}: {}", command.collection(), command.shape());
+            }
+        } catch (Exception e) {
+            log.debug("Explain failed for {}: {}", command.shape(), e.getMessage());
+        }
+    }
+    
+    // The winning plan sits at queryPlanner.winningPlan for most commands, deeper for aggregations
+    private static Document findWinningPlan(Document document) {
+        for (Map.Entry<String, Object> field : document.entrySet()) {
+            if (field.getKey().equals("winningPlan") && field.getValue() instanceof Document plan) {
+                // Slot-based execution nests the classic plan under queryPlan
+                return plan.get("queryPlan") instanceof Document queryPlan ? queryPlan : plan;
+            }
+            Object value = field.getValue();
+            if (value instanceof List<?> list && !list.isEmpty()) {
+                value = list.get(0);
+            }
+            if (value instanceof Document nested) {
+                Document plan = findWinningPlan(nested);
+                if (plan != null) {
+                    return plan;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static void collectStages(Document plan, List<String> stages) {
+        String stage = plan.getString("stage");
+        String indexName = plan.getString("indexName");
+        stages.add(indexName != null ? stage + "(" + indexName + ")" : stage);
+        if (plan.get("inputStage") instanceof Document input) {
+            collectStages(input, stages);
+        }
+        if (plan.get("inputStages") instanceof List<?> inputs) {
+            for (Object input : inputs) {
+                if (input instanceof Document document) {
+                    collectStages(document, stages);
+                }
+            }
+        }
+    }
+    
+    private static class ShapeStats {
+        
+        private final String shape;
+        private final String collection;
+        private long count;
+        private long totalMs;
+        private long maxMs;
+        private LocalDateTime lastSeen;
+        // Read without the lock on every command of the shape
+        private volatile long nextExplainAt;
+        private String plan;
+        private Boolean collectionScan;
+        private LocalDateTime explainedAt;
+        
+        ShapeStats(String shape, String collection) {
+            this.shape = shape;
+            this.collection = collection;
+        }
+        
+        synchronized void record(long elapsedMs) {
+            count++;
+            totalMs += elapsedMs;
+            maxMs = Math.max(maxMs, elapsedMs);
+            lastSeen = LocalDateTime.now();
+        }
+        
+        boolean explainDue(long nowMs) {
+            return nowMs >= nextExplainAt;
+        }
+        
+        synchronized boolean claimExplain(long nowMs) {
+            if (nowMs < nextExplainAt) {
+                return false;
+            }
+            nextExplainAt = nowMs + EXPLAIN_INTERVAL_MS;
+            return true;
+        }
+        
+        /**
+         * @return true when the shape is newly found to scan the collection
+         */
+        synchronized boolean explained(String plan, boolean collectionScan) {
+            boolean newlyScanning = collectionScan && !Boolean.TRUE.equals(this.collectionScan);
+            this.plan = plan;
+            this.collectionScan = collectionScan;
+            this.explainedAt = LocalDateTime.now();
+            return newlyScanning;
+        }
+        
+        synchronized SlowQueryResponse toResponse() {
+            SlowQueryResponse response = new SlowQueryResponse();
+            response.setShape(shape);
+            response.setCollection(collection);
+            response.setCount(count);
+            response.setTotalMillis(totalMs);
+            response.setMaxMillis(maxMs);
+            response.setAverageMillis(count == 0 ? 0 : totalMs / count);
+            response.setLastSeen(lastSeen);
+            response.setPlan(plan);
+            response.setCollectionScan(collectionScan);
+            response.setExplainedAt(explainedAt);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.hourglass.jobclocksync.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor for streamed responses: the NDJSON {@code Flux} lists, the CSV/NDJSON exports and the vendor
+ * stream. On the servlet stack Spring MVC writes each element with a blocking servlet write from the MVC
+ * async executor, so a slow client holds one of these threads for as long as it reads. By default that
+ * executor is {@code applicationTaskExecutor}, which the dashboard fan-out also uses; a separate bounded
+ * pool keeps slow stream clients from starving it. Streams beyond the pool and queue are rejected, and
+ * {@code spring.mvc.async.request-timeout} cuts off any stream that runs too long.
+ *
+ * <p>Not registered as a bean, since any {@code Executor} bean would replace the auto-configured
+ * {@code applicationTaskExecutor}.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer, DisposableBean {
+    
+    @Value("${streaming.executor.core-size:4}")
+    private int coreSize;
+    
+    @Value("${streaming.executor.max-size:16}")
+    private int maxSize;
+    
+    @Value("${streaming.executor.queue-capacity:100}")
+    private int queueCapacity;
+    
+    private final ThreadPoolTaskExecutor streamingExecutor = new ThreadPoolTaskExecutor();
+    
+    @PostConstruct
+    void init() {
+        streamingExecutor.setCorePoolSize(coreSize);
+        streamingExecutor.setMaxPoolSize(maxSize);
+        streamingExecutor.setQueueCapacity(queueCapacity);
+        streamingExecutor.setThreadNamePrefix("stream-");
+        streamingExecutor.initialize();
+    }
+    
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+    
+    @Override
+    public void destroy() {
+        streamingExecutor.shutdown();
+    }
+}
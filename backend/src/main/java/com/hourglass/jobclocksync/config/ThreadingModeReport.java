@@ -0,0 +1,38 @@
+package com.hourglass.jobclocksync.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs whether requests and executor tasks run on virtual or platform threads, and warns when
+ * virtual threads were requested on a JVM that cannot provide them.
+ */
+@Component
+public class ThreadingModeReport {
+    
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReport.class);
+    
+    @Autowired
+    private Environment environment;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Threading mode: virtual threads for request handling and task execution");
+        } else if (requested) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                Runtime.version().feature());
+        } else {
+            log.info("Threading mode: platform threads (Tomcat pool max {}, task pool max {})",
+                environment.getProperty("server.tomcat.threads.max", "200"),
+                environment.getProperty("spring.task.execution.pool.max-size", "unbounded"));
+        }
+    }
+}
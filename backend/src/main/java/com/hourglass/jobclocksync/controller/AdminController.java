@@ -0,0 +1,46 @@
+package com.hourglass.jobclocksync.controller;
+
+import com.hourglass.jobclocksync.config.SlowQueryLog;
+import com.hourglass.jobclocksync.dto.SlowQueryResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@Tag(name = "Administration", description = "Operational diagnostics (Admin only)")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+    
+    private static final int MAX_SLOW_QUERIES = 100;
+    
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+    
+    @GetMapping("/slow-queries")
+    @Operation(
+        summary = "Slowest query shapes",
+        description = "MongoDB commands over slow-query.threshold-ms since startup or the last reset, grouped by shape and ordered by total time, with the latest sampled plan."
+    )
+    public ResponseEntity<List<SlowQueryResponse>> getSlowQueries(
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_SLOW_QUERIES) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok(slowQueryLog.top(limit));
+    }
+    
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> resetSlowQueries() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
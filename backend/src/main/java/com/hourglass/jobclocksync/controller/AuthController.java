@@ -2,8 +2,12 @@ package com.hourglass.jobclocksync.controller;
 
 import com.hourglass.jobclocksync.dto.LoginRequest;
 import com.hourglass.jobclocksync.dto.LoginResponse;
+import com.hourglass.jobclocksync.dto.RefreshRequest;
+import com.hourglass.jobclocksync.dto.UserResponse;
 import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
 import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.service.LoginThrottledException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,12 +15,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/auth")
 @Tag(name = "Authentication", description = "Authentication and user management APIs")
@@ -40,18 +49,76 @@ public class AuthController {
             responseCode = "400",
             description = "Invalid credentials or validation error",
             content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Too many failed attempts for this account or address; see Retry-After",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Login capacity exhausted; retry shortly",
+            content = @Content
         )
     })
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            LoginResponse response = authService.login(request);
+            LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("Too many concurrent logins, please retry"));
         } catch (RuntimeException e) {
             // Return error message for debugging
             return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
         }
     }
     
+    @PostMapping("/refresh")
+    @Operation(
+        summary = "Refresh session",
+        description = "Exchanges a refresh token for a new access token and a new refresh token; the presented refresh token stops working"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "New token pair",
+            content = @Content(schema = @Schema(implementation = LoginResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Refresh token unknown, expired, revoked or already used",
+            content = @Content
+        )
+    })
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ErrorResponse(e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Log out",
+        description = "Revokes the given refresh token and the bearer access token, if present"
+    )
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+            ? authorization.substring(7)
+            : null;
+        authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+    
     // Inner class for error response
     private static class ErrorResponse {
         private String error;
@@ -79,7 +146,7 @@ public class AuthController {
         @ApiResponse(
             responseCode = "200",
             description = "Successfully retrieved user details",
-            content = @Content(schema = @Schema(implementation = User.class))
+            content = @Content(schema = @Schema(implementation = UserResponse.class))
         ),
         @ApiResponse(
             responseCode = "401",
@@ -87,10 +154,10 @@ public class AuthController {
             content = @Content
         )
     })
-    public ResponseEntity<User> getCurrentUser(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        user.setPassword(null); // Don't return password
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser principal) {
+        // The cached User is shared, so map it rather than blanking its password in place
+        User user = authService.getCurrentUser(principal.getEmail());
+        return ResponseEntity.ok(UserResponse.fromEntity(user));
     }
 }
 
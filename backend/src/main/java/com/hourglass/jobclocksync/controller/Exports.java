@@ -0,0 +1,71 @@
+package com.hourglass.jobclocksync.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hourglass.jobclocksync.util.Csv;
+import com.hourglass.jobclocksync.util.NdjsonWriter;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes an open database cursor to the response as CSV or NDJSON, one row at a time.
+ */
+final class Exports {
+    
+    enum Format {
+        CSV, NDJSON;
+        
+        static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value, e);
+            }
+        }
+    }
+    
+    private Exports() {
+    }
+    
+    /**
+     * Takes ownership of {@code rows} and closes it once the body has been written.
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(Stream<T> rows, Format format, String name,
+                                                            ObjectMapper objectMapper, String[] csvHeader,
+                                                            Function<T, Object[]> csvRow) {
+        StreamingResponseBody body = out -> {
+            try (rows) {
+                if (format == Format.NDJSON) {
+                    NdjsonWriter.write(rows, out, objectMapper);
+                    return;
+                }
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                Csv.writeRow(writer, (Object[]) csvHeader);
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    Csv.writeRow(writer, csvRow.apply(iterator.next()));
+                }
+                writer.flush();
+            }
+        };
+        
+        String filename = name + (format == Format.NDJSON ? ".ndjson" : ".csv");
+        MediaType contentType = format == Format.NDJSON
+            ? MediaType.APPLICATION_NDJSON
+            : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+            .contentType(contentType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+}
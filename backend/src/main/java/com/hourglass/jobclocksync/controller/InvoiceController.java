@@ -1,21 +1,33 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hourglass.jobclocksync.dto.BulkActionRequest;
+import com.hourglass.jobclocksync.dto.BulkActionResponse;
+import com.hourglass.jobclocksync.dto.CursorPage;
 import com.hourglass.jobclocksync.dto.InvoiceRequest;
 import com.hourglass.jobclocksync.dto.InvoiceResponse;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.model.User;
-import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
 import com.hourglass.jobclocksync.service.InvoiceService;
 import com.hourglass.jobclocksync.service.WorkOrderService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/invoices")
@@ -23,24 +35,25 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class InvoiceController {
     
+    private static final String[] CSV_HEADER = {
+        "id", "invoiceNumber", "vendorId", "companyId", "workOrderId", "status", "subtotal",
+        "taxAmount", "totalAmount", "dueDate", "paidDate", "createdAt", "updatedAt"
+    };
+    
     @Autowired
     private InvoiceService invoiceService;
     
     @Autowired
-    private AuthService authService;
+    private WorkOrderService workOrderService;
     
     @Autowired
-    private WorkOrderService workOrderService;
+    private ObjectMapper objectMapper;
     
     @PostMapping
+    @PreAuthorize("hasRole('VENDOR')")
     public ResponseEntity<InvoiceResponse> createInvoice(
             @Valid @RequestBody InvoiceRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.VENDOR) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @AuthenticationPrincipal AuthenticatedUser user) {
         // Get company ID from work order
         String companyId = workOrderService.getCompanyIdByWorkOrderId(request.getWorkOrderId());
         
@@ -49,85 +62,176 @@ public class InvoiceController {
     }
     
     @GetMapping
-    public ResponseEntity<List<InvoiceResponse>> getInvoices(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        List<InvoiceResponse> invoices;
+    public ResponseEntity<List<InvoiceResponse>> getInvoices(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ListQuery query) {
+        String version = user.getRole() == User.UserRole.VENDOR
+            ? invoiceService.getInvoicesVersionByVendor(user.getId())
+            : invoiceService.getInvoicesVersionByCompany(user.getId());
+        String etag = Pages.etag(version, query);
+        if (Pages.isNotModified(ifNoneMatch, etag)) {
+            return Pages.notModified(etag);
+        }
+        
+        CursorPage<InvoiceResponse> invoices;
         
-        if (user.getRole() == User.UserRole.VENDOR) {
-            invoices = invoiceService.getInvoicesByVendor(user.getId());
-        } else {
-            invoices = invoiceService.getInvoicesByCompany(user.getId());
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                invoices = invoiceService.getInvoicesByVendor(user.getId(), query);
+            } else {
+                invoices = invoiceService.getInvoicesByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(invoices);
+        return Pages.ok(invoices, etag);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream invoices",
+        description = "Selected with 'Accept: application/x-ndjson'. Emits every match newest first from the reactive driver; accepts status, from, to and limit."
+    )
+    public ResponseEntity<Flux<InvoiceResponse>> streamInvoices(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            ListQuery query) {
+        Flux<InvoiceResponse> invoices;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                invoices = invoiceService.streamInvoicesByVendor(user.getId(), query);
+            } else {
+                invoices = invoiceService.streamInvoicesByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(invoices);
     }
     
     @PostMapping("/{id}/submit")
+    @PreAuthorize("hasRole('VENDOR')")
     public ResponseEntity<InvoiceResponse> submitInvoice(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.VENDOR) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            InvoiceResponse response = invoiceService.submitInvoice(id);
+            InvoiceResponse response = invoiceService.submitInvoice(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PostMapping("/{id}/approve")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<InvoiceResponse> approveInvoice(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            InvoiceResponse response = invoiceService.approveInvoice(id);
+            InvoiceResponse response = invoiceService.approveInvoice(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PostMapping("/{id}/reject")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<InvoiceResponse> rejectInvoice(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            InvoiceResponse response = invoiceService.rejectInvoice(id);
+            InvoiceResponse response = invoiceService.rejectInvoice(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PostMapping("/{id}/pay")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<InvoiceResponse> markInvoiceAsPaid(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            InvoiceResponse response = invoiceService.markInvoiceAsPaid(id);
+            InvoiceResponse response = invoiceService.markInvoiceAsPaid(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    @PostMapping("/bulk-approve")
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<BulkActionResponse> bulkApprove(
+            @Valid @RequestBody BulkActionRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(invoiceService.bulkApprove(request.getIds(), user.getId()));
+    }
+    
+    @PostMapping("/bulk-reject")
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<BulkActionResponse> bulkReject(
+            @Valid @RequestBody BulkActionRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(invoiceService.bulkReject(request.getIds(), user.getId()));
+    }
+    
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export invoices",
+        description = "Streams every matching invoice, oldest first, as CSV (default) or NDJSON. Accepts status, from and to."
+    )
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(defaultValue = "csv") String format,
+            ListQuery query) {
+        Exports.Format exportFormat;
+        Stream<InvoiceResponse> invoices;
+        
+        try {
+            exportFormat = Exports.Format.parse(format);
+            if (user.getRole() == User.UserRole.VENDOR) {
+                invoices = invoiceService.exportInvoicesByVendor(user.getId(), query);
+            } else {
+                invoices = invoiceService.exportInvoicesByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return Exports.stream(invoices, exportFormat, "invoices", objectMapper, CSV_HEADER, InvoiceController::toCsvRow);
+    }
+    
+    private static Object[] toCsvRow(InvoiceResponse invoice) {
+        return new Object[] {
+            invoice.getId(),
+            invoice.getInvoiceNumber(),
+            invoice.getVendorId(),
+            invoice.getCompanyId(),
+            invoice.getWorkOrderId(),
+            invoice.getStatus(),
+            invoice.getSubtotal(),
+            invoice.getTaxAmount(),
+            invoice.getTotalAmount(),
+            invoice.getDueDate(),
+            invoice.getPaidDate(),
+            invoice.getCreatedAt(),
+            invoice.getUpdatedAt()
+        };
+    }
 }
 
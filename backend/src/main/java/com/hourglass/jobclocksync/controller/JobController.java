@@ -1,19 +1,26 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.JobApplicationResponse;
 import com.hourglass.jobclocksync.dto.JobRequest;
 import com.hourglass.jobclocksync.dto.JobResponse;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.model.Job;
 import com.hourglass.jobclocksync.model.User;
-import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
 import com.hourglass.jobclocksync.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -26,48 +33,77 @@ public class JobController {
     @Autowired
     private JobService jobService;
     
-    @Autowired
-    private AuthService authService;
-    
     @PostMapping
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<JobResponse> createJob(
             @Valid @RequestBody JobRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @AuthenticationPrincipal AuthenticatedUser user) {
         JobResponse response = jobService.createJob(request, user.getId());
         return ResponseEntity.ok(response);
     }
     
     @GetMapping
-    public ResponseEntity<List<JobResponse>> getJobs(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        List<JobResponse> jobs;
+    public ResponseEntity<List<JobResponse>> getJobs(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ListQuery query) {
+        String version = user.getRole() == User.UserRole.VENDOR
+            ? jobService.getOpenJobsVersion()
+            : jobService.getJobsVersionByCompany(user.getId());
+        String etag = Pages.etag(version, query);
+        if (Pages.isNotModified(ifNoneMatch, etag)) {
+            return Pages.notModified(etag);
+        }
+        
+        CursorPage<JobResponse> jobs;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                // Vendors see open jobs
+                jobs = jobService.getOpenJobs(query);
+            } else {
+                // Companies see their own jobs
+                jobs = jobService.getJobsByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return Pages.ok(jobs, etag);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream jobs",
+        description = "Selected with 'Accept: application/x-ndjson'. Emits every match newest first from the reactive driver; accepts status, from, to and limit."
+    )
+    public ResponseEntity<Flux<JobResponse>> streamJobs(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            ListQuery query) {
+        Flux<JobResponse> jobs;
         
-        if (user.getRole() == User.UserRole.VENDOR) {
-            // Vendors see open jobs
-            jobs = jobService.getOpenJobs();
-        } else {
-            // Companies see their own jobs
-            jobs = jobService.getJobsByCompany(user.getId());
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                // Vendors see open jobs
+                jobs = jobService.streamOpenJobs(query);
+            } else {
+                // Companies see their own jobs
+                jobs = jobService.streamJobsByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(jobs);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(jobs);
     }
     
     @PutMapping("/{id}/status")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<JobResponse> updateStatus(
             @PathVariable String id,
-            @RequestParam String status,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam String status) {
         try {
             Job.JobStatus jobStatus = Job.JobStatus.valueOf(status.toUpperCase());
             JobResponse response = jobService.updateJobStatus(id, jobStatus);
@@ -80,16 +116,12 @@ public class JobController {
     }
     
     @PostMapping("/{id}/apply")
-    public ResponseEntity<JobResponse> applyForJob(
+    @PreAuthorize("hasRole('VENDOR')")
+    public ResponseEntity<JobApplicationResponse> applyForJob(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.VENDOR) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            JobResponse response = jobService.applyForJob(id, user.getId());
+            JobApplicationResponse response = jobService.applyForJob(id, user.getId());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -97,15 +129,10 @@ public class JobController {
     }
     
     @PutMapping("/{id}")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<JobResponse> updateJob(
             @PathVariable String id,
-            @Valid @RequestBody JobRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @Valid @RequestBody JobRequest request) {
         try {
             JobResponse response = jobService.updateJob(id, request);
             return ResponseEntity.ok(response);
@@ -115,17 +142,14 @@ public class JobController {
     }
     
     @GetMapping("/{id}/applicants")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<List<com.hourglass.jobclocksync.dto.UserResponse>> getJobApplicants(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            ListQuery query) {
         try {
-            List<com.hourglass.jobclocksync.dto.UserResponse> applicants = jobService.getJobApplicants(id);
-            return ResponseEntity.ok(applicants);
+            return Pages.ok(jobService.getJobApplicants(id, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,82 @@
+package com.hourglass.jobclocksync.controller;
+
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
+import com.hourglass.jobclocksync.util.Hashes;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * List endpoints return the page items as the body (so existing clients keep working) and the
+ * cursor for the following page in the X-Next-Cursor header.
+ * <p>
+ * Pages also carry a strong ETag derived from the caller's collection version and the query, so a
+ * client polling an unchanged list gets a 304 before the page is queried or serialized.
+ */
+final class Pages {
+    
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
+    // Browsers keep the page but revalidate it on every poll
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    
+    private Pages() {
+    }
+    
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CACHE_CONTROL);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+    
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(CACHE_CONTROL)
+            .build();
+    }
+    
+    /**
+     * @param collectionVersion the caller's scope version from CollectionVersions
+     */
+    static String etag(String collectionVersion, ListQuery query) {
+        String key = collectionVersion + '|' + query.getStatus() + '|' + query.getFrom() + '|' + query.getTo()
+            + '|' + query.getLimit() + '|' + query.getCursor();
+        return '"' + Hashes.sha256(key) + '"';
+    }
+    
+    /**
+     * Whether an If-None-Match header matches the ETag, using the weak comparison RFC 9110 requires
+     * for that header.
+     */
+    static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
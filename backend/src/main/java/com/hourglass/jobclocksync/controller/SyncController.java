@@ -0,0 +1,44 @@
+package com.hourglass.jobclocksync.controller;
+
+import com.hourglass.jobclocksync.dto.SyncResponse;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
+import com.hourglass.jobclocksync.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/sync")
+@Tag(name = "Sync", description = "Delta sync APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class SyncController {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @GetMapping
+    @Operation(
+        summary = "Delta sync",
+        description = "Returns the caller's timesheets, invoices, work orders and jobs created, updated or deleted since the watermark of the previous sync (everything when omitted). When hasMore is set, call again with the returned cursor instead of since. 410 means the watermark is too old and the client must sync from scratch."
+    )
+    public ResponseEntity<SyncResponse> sync(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(syncService.sync(user.getId(), user.getRole(), since, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hourglass.jobclocksync.dto.BulkActionRequest;
+import com.hourglass.jobclocksync.dto.BulkActionResponse;
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
+import com.hourglass.jobclocksync.dto.TimesheetImportReport;
 import com.hourglass.jobclocksync.dto.TimesheetRequest;
 import com.hourglass.jobclocksync.dto.TimesheetResponse;
 import com.hourglass.jobclocksync.model.User;
-import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
+import com.hourglass.jobclocksync.service.TimesheetImportService;
 import com.hourglass.jobclocksync.service.TimesheetService;
 import com.hourglass.jobclocksync.service.WorkOrderService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/timesheets")
@@ -23,20 +42,28 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class TimesheetController {
     
+    private static final String[] CSV_HEADER = {
+        "id", "vendorId", "companyId", "workOrderId", "status", "weekStartDate",
+        "weekEndDate", "totalHours", "submittedDate", "approvedDate", "createdAt", "updatedAt"
+    };
+    
     @Autowired
     private TimesheetService timesheetService;
     
     @Autowired
-    private AuthService authService;
+    private WorkOrderService workOrderService;
     
     @Autowired
-    private WorkOrderService workOrderService;
+    private TimesheetImportService timesheetImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @PostMapping
+    @PreAuthorize("hasAnyRole('COMPANY', 'VENDOR')")
     public ResponseEntity<TimesheetResponse> createTimesheet(
             @Valid @RequestBody TimesheetRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
+            @AuthenticationPrincipal AuthenticatedUser user) {
         
         String vendorId;
         String companyId;
@@ -48,12 +75,10 @@ public class TimesheetController {
             }
             vendorId = request.getVendorId();
             companyId = user.getId();
-        } else if (user.getRole() == User.UserRole.VENDOR) {
+        } else {
             vendorId = user.getId();
             // Get company ID from work order
             companyId = workOrderService.getCompanyIdByWorkOrderId(request.getWorkOrderId());
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
         TimesheetResponse response = timesheetService.createTimesheet(request, vendorId, companyId);
@@ -61,68 +86,194 @@ public class TimesheetController {
     }
     
     @GetMapping
-    public ResponseEntity<List<TimesheetResponse>> getTimesheets(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        List<TimesheetResponse> timesheets;
+    public ResponseEntity<List<TimesheetResponse>> getTimesheets(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ListQuery query) {
+        String version = user.getRole() == User.UserRole.VENDOR
+            ? timesheetService.getTimesheetsVersionByVendor(user.getId())
+            : timesheetService.getTimesheetsVersionByCompany(user.getId());
+        String etag = Pages.etag(version, query);
+        if (Pages.isNotModified(ifNoneMatch, etag)) {
+            return Pages.notModified(etag);
+        }
         
-        if (user.getRole() == User.UserRole.VENDOR) {
-            timesheets = timesheetService.getTimesheetsByVendor(user.getId());
-        } else {
-            timesheets = timesheetService.getTimesheetsByCompany(user.getId());
+        CursorPage<TimesheetResponse> timesheets;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                timesheets = timesheetService.getTimesheetsByVendor(user.getId(), query);
+            } else {
+                timesheets = timesheetService.getTimesheetsByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return Pages.ok(timesheets, etag);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream timesheets",
+        description = "Selected with 'Accept: application/x-ndjson'. Emits every match newest first from the reactive driver; accepts status, from, to and limit."
+    )
+    public ResponseEntity<Flux<TimesheetResponse>> streamTimesheets(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            ListQuery query) {
+        Flux<TimesheetResponse> timesheets;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                timesheets = timesheetService.streamTimesheetsByVendor(user.getId(), query);
+            } else {
+                timesheets = timesheetService.streamTimesheetsByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(timesheets);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(timesheets);
     }
     
     @PostMapping("/{id}/submit")
+    @PreAuthorize("hasRole('VENDOR')")
     public ResponseEntity<TimesheetResponse> submitTimesheet(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.VENDOR) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            TimesheetResponse response = timesheetService.submitTimesheet(id);
+            TimesheetResponse response = timesheetService.submitTimesheet(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PostMapping("/{id}/approve")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<TimesheetResponse> approveTimesheet(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            TimesheetResponse response = timesheetService.approveTimesheet(id);
+            TimesheetResponse response = timesheetService.approveTimesheet(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PostMapping("/{id}/reject")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<TimesheetResponse> rejectTimesheet(
             @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version) {
         try {
-            TimesheetResponse response = timesheetService.rejectTimesheet(id);
+            TimesheetResponse response = timesheetService.rejectTimesheet(id, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    @PostMapping("/bulk-approve")
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<BulkActionResponse> bulkApprove(
+            @Valid @RequestBody BulkActionRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(timesheetService.bulkApprove(request.getIds(), user.getId()));
+    }
+    
+    @PostMapping("/bulk-reject")
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<BulkActionResponse> bulkReject(
+            @Valid @RequestBody BulkActionRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(timesheetService.bulkReject(request.getIds(), user.getId()));
+    }
+    
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Import timesheets in bulk",
+        description = "Streams a CSV (one row per entry) or NDJSON (one timesheet per line) body and returns a per-row error report."
+    )
+    @PreAuthorize("hasAnyRole('COMPANY', 'VENDOR')")
+    public ResponseEntity<TimesheetImportReport> importTimesheets(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            InputStream body) throws IOException {
+        String vendorId;
+        String companyId;
+        
+        // Same ownership rules as createTimesheet, resolved per row where needed
+        if (user.getRole() == User.UserRole.COMPANY) {
+            vendorId = null;
+            companyId = user.getId();
+        } else {
+            vendorId = user.getId();
+            companyId = null;
+        }
+        
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        TimesheetImportService.Format format = ndjson
+            ? TimesheetImportService.Format.NDJSON
+            : TimesheetImportService.Format.CSV;
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(timesheetImportService.importTimesheets(reader, format, vendorId, companyId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export timesheets",
+        description = "Streams every matching timesheet, oldest first, as CSV (default) or NDJSON. Accepts status, from and to."
+    )
+    public ResponseEntity<StreamingResponseBody> exportTimesheets(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(defaultValue = "csv") String format,
+            ListQuery query) {
+        Exports.Format exportFormat;
+        Stream<TimesheetResponse> timesheets;
+        
+        try {
+            exportFormat = Exports.Format.parse(format);
+            if (user.getRole() == User.UserRole.VENDOR) {
+                timesheets = timesheetService.exportTimesheetsByVendor(user.getId(), query);
+            } else {
+                timesheets = timesheetService.exportTimesheetsByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return Exports.stream(timesheets, exportFormat, "timesheets", objectMapper, CSV_HEADER, TimesheetController::toCsvRow);
+    }
+    
+    private static Object[] toCsvRow(TimesheetResponse timesheet) {
+        return new Object[] {
+            timesheet.getId(),
+            timesheet.getVendorId(),
+            timesheet.getCompanyId(),
+            timesheet.getWorkOrderId(),
+            timesheet.getStatus(),
+            timesheet.getWeekStartDate(),
+            timesheet.getWeekEndDate(),
+            timesheet.getTotalHours(),
+            timesheet.getSubmittedDate(),
+            timesheet.getApprovedDate(),
+            timesheet.getCreatedAt(),
+            timesheet.getUpdatedAt()
+        };
+    }
 }
 
@@ -1,17 +1,15 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.UserRequest;
 import com.hourglass.jobclocksync.dto.UserResponse;
-import com.hourglass.jobclocksync.model.User;
-import com.hourglass.jobclocksync.service.AuthService;
 import com.hourglass.jobclocksync.service.UserService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,34 +18,25 @@ import java.util.List;
 @RequestMapping("/users")
 @Tag(name = "User Management", description = "User management APIs (Admin only)")
 @SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
 public class UserController {
     
     @Autowired
     private UserService userService;
     
-    @Autowired
-    private AuthService authService;
-    
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getAllUsers(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    public ResponseEntity<List<UserResponse>> getAllUsers(
+            ListQuery query) {
+        try {
+            return Pages.ok(userService.getAllUsers(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<UserResponse> getUserById(
-            @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @PathVariable String id) {
         try {
             UserResponse userResponse = userService.getUserById(id);
             return ResponseEntity.ok(userResponse);
@@ -59,15 +48,9 @@ public class UserController {
     @GetMapping("/role/{role}")
     public ResponseEntity<List<UserResponse>> getUsersByRole(
             @PathVariable String role,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            ListQuery query) {
         try {
-            List<UserResponse> users = userService.getUsersByRole(role);
-            return ResponseEntity.ok(users);
+            return Pages.ok(userService.getUsersByRole(role, query));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -75,13 +58,7 @@ public class UserController {
     
     @PostMapping
     public ResponseEntity<UserResponse> createUser(
-            @Valid @RequestBody UserRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @Valid @RequestBody UserRequest request) {
         try {
             UserResponse userResponse = userService.createUser(request);
             return ResponseEntity.ok(userResponse);
@@ -93,13 +70,7 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(
             @PathVariable String id,
-            @Valid @RequestBody UserRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @Valid @RequestBody UserRequest request) {
         try {
             UserResponse userResponse = userService.updateUser(id, request);
             return ResponseEntity.ok(userResponse);
@@ -110,13 +81,7 @@ public class UserController {
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(
-            @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @PathVariable String id) {
         try {
             userService.deleteUser(id);
             return ResponseEntity.noContent().build();
@@ -127,13 +92,7 @@ public class UserController {
     
     @PostMapping("/{id}/toggle-status")
     public ResponseEntity<UserResponse> toggleUserStatus(
-            @PathVariable String id,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.ADMIN) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @PathVariable String id) {
         try {
             UserResponse userResponse = userService.toggleUserStatus(id);
             return ResponseEntity.ok(userResponse);
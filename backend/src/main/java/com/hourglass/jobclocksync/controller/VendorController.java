@@ -1,21 +1,24 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.UserResponse;
-import com.hourglass.jobclocksync.model.User;
-import com.hourglass.jobclocksync.repository.UserRepository;
-import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.service.UserService;
+import com.hourglass.jobclocksync.util.NdjsonWriter;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/vendors")
@@ -24,24 +27,36 @@ import java.util.stream.Collectors;
 public class VendorController {
     
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
     
     @Autowired
-    private AuthService authService;
+    private ObjectMapper objectMapper;
     
     @GetMapping
-    public ResponseEntity<List<UserResponse>> getVendors(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<List<UserResponse>> getVendors(
+            ListQuery query) {
+        try {
+            return Pages.ok(userService.getActiveVendors(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        
-        List<UserResponse> vendors = userRepository.findAll().stream()
-            .filter(u -> u.getRole() == User.UserRole.VENDOR && u.isActive())
-            .map(UserResponse::fromEntity)
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(vendors);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream all active vendors",
+        description = "Selected with 'Accept: application/x-ndjson'. Writes one vendor per line straight from a database cursor."
+    )
+    @PreAuthorize("hasRole('COMPANY')")
+    public ResponseEntity<StreamingResponseBody> streamVendors() {
+        StreamingResponseBody body = out -> {
+            try (Stream<UserResponse> vendors = userService.streamActiveVendors()) {
+                NdjsonWriter.write(vendors, out, objectMapper);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
     }
 }
-
@@ -1,19 +1,26 @@
 package com.hourglass.jobclocksync.controller;
 
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.WorkOrderRequest;
 import com.hourglass.jobclocksync.dto.WorkOrderResponse;
 import com.hourglass.jobclocksync.model.User;
 import com.hourglass.jobclocksync.model.WorkOrder;
-import com.hourglass.jobclocksync.service.AuthService;
+import com.hourglass.jobclocksync.security.AuthenticatedUser;
 import com.hourglass.jobclocksync.service.WorkOrderService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 
@@ -26,65 +33,98 @@ public class WorkOrderController {
     @Autowired
     private WorkOrderService workOrderService;
     
-    @Autowired
-    private AuthService authService;
-    
     @PostMapping
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<WorkOrderResponse> createWorkOrder(
             @Valid @RequestBody WorkOrderRequest request,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @AuthenticationPrincipal AuthenticatedUser user) {
         WorkOrderResponse response = workOrderService.createWorkOrder(request, user.getId());
         return ResponseEntity.ok(response);
     }
     
     @GetMapping
-    public ResponseEntity<List<WorkOrderResponse>> getWorkOrders(Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        List<WorkOrderResponse> workOrders;
+    public ResponseEntity<List<WorkOrderResponse>> getWorkOrders(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ListQuery query) {
+        String version = user.getRole() == User.UserRole.VENDOR
+            ? workOrderService.getWorkOrdersVersionByVendor(user.getId())
+            : workOrderService.getWorkOrdersVersionByCompany(user.getId());
+        String etag = Pages.etag(version, query);
+        if (Pages.isNotModified(ifNoneMatch, etag)) {
+            return Pages.notModified(etag);
+        }
         
-        if (user.getRole() == User.UserRole.VENDOR) {
-            workOrders = workOrderService.getWorkOrdersByVendor(user.getId());
-        } else {
-            workOrders = workOrderService.getWorkOrdersByCompany(user.getId());
+        CursorPage<WorkOrderResponse> workOrders;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                workOrders = workOrderService.getWorkOrdersByVendor(user.getId(), query);
+            } else {
+                workOrders = workOrderService.getWorkOrdersByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
         
-        return ResponseEntity.ok(workOrders);
+        return Pages.ok(workOrders, etag);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Stream workOrders",
+        description = "Selected with 'Accept: application/x-ndjson'. Emits every match newest first from the reactive driver; accepts status, from, to and limit."
+    )
+    public ResponseEntity<Flux<WorkOrderResponse>> streamWorkOrders(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            ListQuery query) {
+        Flux<WorkOrderResponse> workOrders;
+        
+        try {
+            if (user.getRole() == User.UserRole.VENDOR) {
+                workOrders = workOrderService.streamWorkOrdersByVendor(user.getId(), query);
+            } else {
+                workOrders = workOrderService.streamWorkOrdersByCompany(user.getId(), query);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(workOrders);
     }
     
     @PutMapping("/{id}/status")
     public ResponseEntity<WorkOrderResponse> updateStatus(
             @PathVariable String id,
+            @RequestParam(required = false) Long version,
             @RequestParam String status,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
             WorkOrder.WorkOrderStatus orderStatus = WorkOrder.WorkOrderStatus.valueOf(status.toUpperCase());
-            WorkOrderResponse response = workOrderService.updateWorkOrderStatus(id, orderStatus);
+            WorkOrderResponse response = workOrderService.updateWorkOrderStatus(id, orderStatus, version);
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
     @PutMapping("/{id}/assign")
+    @PreAuthorize("hasRole('COMPANY')")
     public ResponseEntity<WorkOrderResponse> assignWorkOrder(
             @PathVariable String id,
-            @RequestParam String vendorId,
-            Authentication authentication) {
-        User user = authService.getCurrentUser(authentication.getName());
-        if (user.getRole() != User.UserRole.COMPANY) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-        }
-        
+            @RequestParam(required = false) Long version,
+            @RequestParam String vendorId) {
         try {
-            WorkOrderResponse response = workOrderService.assignWorkOrder(id, vendorId);
+            WorkOrderResponse response = workOrderService.assignWorkOrder(id, vendorId, version);
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
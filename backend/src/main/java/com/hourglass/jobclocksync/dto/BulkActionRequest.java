@@ -0,0 +1,14 @@
+package com.hourglass.jobclocksync.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkActionRequest {
+    @NotEmpty(message = "IDs are required")
+    @Size(max = 1000, message = "At most 1000 IDs per request")
+    private List<String> ids;
+}
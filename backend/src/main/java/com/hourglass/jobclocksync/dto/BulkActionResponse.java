@@ -0,0 +1,30 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkActionResponse {
+    private Integer requested;
+    private Integer succeeded;
+    private List<BulkItemResult> results;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BulkItemResult {
+        private String id;
+        private Outcome outcome;
+        // Current status after the request; null when not found
+        private String status;
+    }
+    
+    public enum Outcome {
+        UPDATED, NOT_FOUND, CONFLICT
+    }
+}
@@ -0,0 +1,23 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+    
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(
+            items.stream().map(mapper).collect(Collectors.toList()),
+            nextCursor);
+    }
+}
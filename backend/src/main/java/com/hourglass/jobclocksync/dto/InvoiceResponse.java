@@ -23,6 +23,7 @@ public class InvoiceResponse {
     private String paidDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     @Data
     public static class InvoiceItemResponse {
@@ -47,6 +48,7 @@ public class InvoiceResponse {
         response.setPaidDate(invoice.getPaidDate() != null ? invoice.getPaidDate().toString() : null);
         response.setCreatedAt(invoice.getCreatedAt());
         response.setUpdatedAt(invoice.getUpdatedAt());
+        response.setVersion(invoice.getVersion());
         
         if (invoice.getItems() != null) {
             response.setItems(invoice.getItems().stream()
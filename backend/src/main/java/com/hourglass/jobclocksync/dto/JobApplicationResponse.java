@@ -0,0 +1,14 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobApplicationResponse {
+    private String jobId;
+    private String vendorId;
+    private Boolean alreadyApplied;
+}
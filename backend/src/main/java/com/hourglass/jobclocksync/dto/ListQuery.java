@@ -0,0 +1,15 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.Data;
+
+/**
+ * Query parameters shared by the list endpoints. Results are ordered newest first.
+ */
+@Data
+public class ListQuery {
+    private String status;
+    private String from;   // yyyy-MM-dd, inclusive, matched against createdAt
+    private String to;     // yyyy-MM-dd, inclusive, matched against createdAt
+    private String cursor; // opaque value of a previous page's nextCursor
+    private Integer limit;
+}
@@ -13,5 +13,8 @@ public class LoginResponse {
     private String email;
     private String name;
     private String role;
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private long expiresIn;
 }
 
@@ -0,0 +1,20 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class SlowQueryResponse {
+    private String shape;
+    private String collection;
+    private long count;
+    private long totalMillis;
+    private long maxMillis;
+    private long averageMillis;
+    private LocalDateTime lastSeen;
+    // From the latest sampled explain; null until one has run
+    private String plan;
+    private Boolean collectionScan;
+    private LocalDateTime explainedAt;
+}
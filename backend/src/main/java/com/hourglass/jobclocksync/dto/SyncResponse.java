@@ -0,0 +1,27 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+public class SyncResponse {
+    private String watermark; // pass back as 'since' on the next sync; null while hasMore
+    private boolean hasMore; // more changes are waiting; sync again right away with the cursor
+    private String cursor;
+    private Changes<TimesheetResponse> timesheets;
+    private Changes<InvoiceResponse> invoices;
+    private Changes<WorkOrderResponse> workOrders;
+    private Changes<JobResponse> jobs;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Changes<T> {
+        private List<T> created;
+        private List<T> updated;
+        private List<String> deleted; // ids
+    }
+}
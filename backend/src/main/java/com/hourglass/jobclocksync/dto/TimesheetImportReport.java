@@ -0,0 +1,28 @@
+package com.hourglass.jobclocksync.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TimesheetImportReport {
+    private Long rowsRead;
+    // Rows, not timesheets: imported + failed = rowsRead
+    private Long imported;
+    private Long failed;
+    // Capped; failed holds the full count
+    private List<RowError> errors = new ArrayList<>();
+    private Long durationMs;
+    private Double rowsPerSecond;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Long line;
+        private String message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hourglass.jobclocksync.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -18,7 +19,8 @@ public class TimesheetRequest {
     private String weekEndDate;
     
     @NotNull(message = "Entries are required")
-    private List<TimesheetEntryRequest> entries;
+    @Valid
+    private List<@NotNull(message = "Entries must not be null") TimesheetEntryRequest> entries;
     
     private String notes;
     
@@ -23,6 +23,7 @@ public class TimesheetResponse {
     private LocalDateTime approvedDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     @Data
     public static class TimesheetEntryResponse {
@@ -47,6 +48,7 @@ public class TimesheetResponse {
         response.setApprovedDate(timesheet.getApprovedDate());
         response.setCreatedAt(timesheet.getCreatedAt());
         response.setUpdatedAt(timesheet.getUpdatedAt());
+        response.setVersion(timesheet.getVersion());
         
         if (timesheet.getEntries() != null) {
             response.setEntries(timesheet.getEntries().stream()
@@ -23,6 +23,7 @@ public class WorkOrderResponse {
     private LocalDateTime completedDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     public static WorkOrderResponse fromEntity(WorkOrder workOrder) {
         return new WorkOrderResponse(
@@ -37,7 +38,8 @@ public class WorkOrderResponse {
             workOrder.getDueDate(),
             workOrder.getCompletedDate(),
             workOrder.getCreatedAt(),
-            workOrder.getUpdatedAt()
+            workOrder.getUpdatedAt(),
+            workOrder.getVersion()
         );
     }
 }
@@ -0,0 +1,35 @@
+package com.hourglass.jobclocksync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Materialized company dashboard counters, keyed by company id.
+ * Maintained incrementally by the work order, job and invoice state transitions and
+ * periodically recomputed from source by CompanyStatsService. Every incremental change bumps
+ * {@code revision}, and a recompute only writes if the revision is unchanged since it started
+ * counting; a document with no {@code reconciledAt} has not been computed yet.
+ */
+@Document(collection = "company_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanyStats {
+    @Id
+    private String id; // companyId
+    
+    private List<String> vendorIds; // distinct vendors assigned to the company's work orders
+    private int openPositions;
+    private int workOrdersInProgress;
+    private String spendMonth; // yyyy-MM that monthlySpend belongs to
+    private double monthlySpend;
+    private long revision;
+    private LocalDateTime reconciledAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.hourglass.jobclocksync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Counter {
+    @Id
+    private String id; // e.g. INV-2025, WO-2025
+    
+    private long seq; // highest value reserved by any instance
+}
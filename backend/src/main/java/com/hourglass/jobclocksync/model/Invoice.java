@@ -4,6 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -11,6 +14,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "invoices")
+@CompoundIndexes({
+    @CompoundIndex(name = "vendor_status_created", def = "{'vendorId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "vendor_created", def = "{'vendorId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_status_created", def = "{'companyId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_created", def = "{'companyId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "vendor_updated", def = "{'vendorId': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_updated", def = "{'companyId': 1, 'updatedAt': -1, '_id': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +45,9 @@ public class Invoice {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    @Version
+    private Long version;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -4,12 +4,23 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "jobs")
+@CompoundIndexes({
+    @CompoundIndex(name = "company_status_created", def = "{'companyId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_created", def = "{'companyId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_created", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_updated", def = "{'companyId': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_updated", def = "{'status': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "updated", def = "{'updatedAt': -1, '_id': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +37,7 @@ public class Job {
     private Double salaryMin;
     private Double salaryMax;
     private String employmentType; // FULL_TIME, PART_TIME, CONTRACT
+    @Indexed
     private List<String> applicantIds; // Vendor IDs who applied
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,37 @@
+package com.hourglass.jobclocksync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Opaque refresh token, stored only as its SHA-256 digest. Each use rotates it: the old document is
+ * marked revoked and points at its replacement, and the replacement keeps its {@code sessionId}, so
+ * one login's whole chain shares it. Expired documents are removed by a TTL index.
+ */
+@Document(collection = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    private String id;
+    
+    @Indexed
+    private String userId;
+    
+    private String sessionId;
+    
+    private Instant createdAt;
+    
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+    
+    private Instant revokedAt;
+    private String replacedBy;
+}
@@ -0,0 +1,31 @@
+package com.hourglass.jobclocksync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Access-token revocation: {@code id} is a token id (logout), {@code session:<sessionId>}, which
+ * revokes every access token of one login session, or {@code user:<userId>}, which revokes that
+ * user's tokens issued before session ids existed. Kept until the last affected access token has
+ * expired; {@code revokedAt} only drives polling.
+ */
+@Document(collection = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    private String id;
+    
+    @Indexed
+    private Instant revokedAt;
+    
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -4,12 +4,23 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "timesheets")
+@CompoundIndexes({
+    @CompoundIndex(name = "vendor_status_created", def = "{'vendorId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "vendor_created", def = "{'vendorId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_status_created", def = "{'companyId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_created", def = "{'companyId': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "vendor_updated", def = "{'vendorId': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "company_updated", def = "{'companyId': 1, 'updatedAt': -1, '_id': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +42,9 @@ public class Timesheet {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    @Version
+    private Long version;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.hourglass.jobclocksync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Records that a synced document was deleted, with the owners it was visible to, so delta sync can
+ * report the deletion. Removed by a TTL index once older than the tombstone retention; clients
+ * whose watermark is older than that must resync from scratch.
+ */
+@Document(collection = "tombstones")
+@CompoundIndexes({
+    @CompoundIndex(name = "collection_vendor_deleted", def = "{'collectionName': 1, 'vendorId': 1, 'deletedAt': 1, '_id': 1}"),
+    @CompoundIndex(name = "collection_company_deleted", def = "{'collectionName': 1, 'companyId': 1, 'deletedAt': 1, '_id': 1}"),
+    @CompoundIndex(name = "collection_deleted", def = "{'collectionName': 1, 'deletedAt': 1, '_id': 1}")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tombstone {
+    @Id
+    private String id;
+    
+    private String collectionName;
+    private String documentId;
+    private String vendorId;
+    private String companyId;
+    private LocalDateTime deletedAt;
+    
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -4,12 +4,19 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "users")
+@CompoundIndexes({
+    @CompoundIndex(name = "created", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "role_created", def = "{'role': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "role_active_created", def = "{'role': 1, 'active': 1, 'createdAt': -1, '_id': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,39 @@
+package com.hourglass.jobclocksync.repository;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * The version of the documents an owner can see in one collection: their count plus the latest
+ * updatedAt. Every write in the services stamps updatedAt and nothing deletes these documents,
+ * so the version changes whenever anything in the scope does. Both parts are read from an
+ * (owner, ...) index - a count scan and a single index entry - without loading any document.
+ */
+@Component
+public class CollectionVersions {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    public String version(Class<?> type, Criteria scope) {
+        String collection = mongoTemplate.getCollectionName(type);
+        long count = mongoTemplate.count(Query.query(scope), collection);
+        
+        Query latest = Query.query(scope)
+            .with(Sort.by(Sort.Direction.DESC, "updatedAt"))
+            .limit(1);
+        latest.fields().include("updatedAt").exclude("_id");
+        Document document = mongoTemplate.findOne(latest, Document.class, collection);
+        Date updatedAt = document != null ? document.getDate("updatedAt") : null;
+        
+        return collection + scope.getCriteriaObject().toJson() + ':' + count + ':'
+            + (updatedAt != null ? updatedAt.getTime() : 0);
+    }
+}
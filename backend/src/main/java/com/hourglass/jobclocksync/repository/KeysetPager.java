@@ -0,0 +1,143 @@
+package com.hourglass.jobclocksync.repository;
+
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination on (createdAt desc, _id desc). The date range and the caller's scope
+ * criteria are part of the MongoDB query, and each page costs one indexed range scan of
+ * limit + 1 documents no matter how deep the client has paged.
+ */
+@Component
+public class KeysetPager {
+    
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    /**
+     * @param excludedFields fields left out of the returned documents (e.g. password hashes)
+     * @throws IllegalArgumentException if the cursor, limit or dates are malformed
+     */
+    public <T> CursorPage<T> page(Class<T> type, Criteria scope, ListQuery params,
+                                  Function<T, LocalDateTime> createdAt, Function<T, String> id,
+                                  String... excludedFields) {
+        int limit = resolveLimit(params.getLimit());
+        
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(scope);
+        
+        Criteria range = createdBetween(params);
+        if (range != null) {
+            clauses.add(range);
+        }
+        
+        if (StringUtils.hasText(params.getCursor())) {
+            Cursor cursor = decode(params.getCursor());
+            clauses.add(new Criteria().orOperator(
+                Criteria.where("createdAt").lt(cursor.createdAt),
+                Criteria.where("createdAt").is(cursor.createdAt).and("_id").lt(cursor.id)));
+        }
+        
+        Query query = Query.query(new Criteria().andOperator(clauses.toArray(new Criteria[0])))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+            .limit(limit + 1);
+        for (String field : excludedFields) {
+            query.fields().exclude(field);
+        }
+        
+        List<T> results = mongoTemplate.find(query, type);
+        if (results.size() <= limit) {
+            return new CursorPage<>(results, null);
+        }
+        
+        List<T> items = results.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new CursorPage<>(items, encode(createdAt.apply(last), id.apply(last)));
+    }
+    
+    /**
+     * The inclusive from/to day range on createdAt, or null when neither bound is given.
+     *
+     * @throws IllegalArgumentException if a date is malformed
+     */
+    public static Criteria createdBetween(ListQuery params) {
+        LocalDate from = parseDate(params.getFrom());
+        LocalDate to = parseDate(params.getTo());
+        if (from == null && to == null) {
+            return null;
+        }
+        Criteria range = Criteria.where("createdAt");
+        if (from != null) {
+            range = range.gte(from.atStartOfDay());
+        }
+        if (to != null) {
+            range = range.lt(to.plusDays(1).atStartOfDay());
+        }
+        return range;
+    }
+    
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    private static LocalDate parseDate(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value, e);
+        }
+    }
+    
+    private static String encode(LocalDateTime createdAt, String id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    private static class Cursor {
+        private final LocalDateTime createdAt;
+        private final String id;
+        
+        Cursor(LocalDateTime createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+    }
+}
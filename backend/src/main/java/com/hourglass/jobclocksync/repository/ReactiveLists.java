@@ -0,0 +1,50 @@
+package com.hourglass.jobclocksync.repository;
+
+import com.hourglass.jobclocksync.dto.ListQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link KeysetPager} for streamed list responses: the same scope and
+ * createdAt filters, newest first, emitted by the reactive MongoDB driver with demand from the
+ * client, so no result list is buffered. This app runs on Spring MVC, which writes the elements
+ * with blocking servlet writes; a slow client holds a thread of the bounded executor in
+ * {@link com.hourglass.jobclocksync.config.StreamingConfig} for the length of the stream. The
+ * reactive driver keeps its own connection pool next to the blocking one.
+ */
+@Component
+public class ReactiveLists {
+    
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    
+    /**
+     * @throws IllegalArgumentException if the limit or dates are malformed
+     */
+    public <T> Flux<T> stream(Class<T> type, Criteria scope, ListQuery params) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(scope);
+        Criteria range = KeysetPager.createdBetween(params);
+        if (range != null) {
+            clauses.add(range);
+        }
+        
+        Query query = Query.query(new Criteria().andOperator(clauses.toArray(new Criteria[0])))
+            .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+        if (params.getLimit() != null) {
+            if (params.getLimit() < 1) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            query.limit(params.getLimit());
+        }
+        return reactiveMongoTemplate.find(query, type);
+    }
+}
@@ -0,0 +1,110 @@
+package com.hourglass.jobclocksync.repository;
+
+import com.hourglass.jobclocksync.dto.BulkActionResponse;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Status changes as a single conditional findAndModify on (_id, status in allowed, version).
+ * Only the status, the caller's extra fields, updatedAt and version are written, and
+ * two concurrent transitions of the same document can never both succeed.
+ */
+@Component
+public class StatusTransitions {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    /**
+     * @param from statuses the document may currently be in
+     * @param update the status change plus any fields that go with it
+     * @param expectedVersion when not null, the document must also still be at this version
+     * @param returnNew whether to return the document after (true) or before (false) the change
+     * @throws RuntimeException with {@code notFoundMessage} if no document has this id
+     * @throws IllegalStateException if the document is not in an allowed status or its version has moved on
+     */
+    public <T> T apply(Class<T> type, String id, Collection<? extends Enum<?>> from, Update update,
+                       Long expectedVersion, boolean returnNew, String notFoundMessage) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").in(from);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        
+        if (!update.modifies("updatedAt")) {
+            update.set("updatedAt", LocalDateTime.now());
+        }
+        update.inc("version", 1);
+        T result = mongoTemplate.findAndModify(Query.query(criteria), update,
+            FindAndModifyOptions.options().returnNew(returnNew), type);
+        if (result != null) {
+            return result;
+        }
+        
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), type)) {
+            throw new RuntimeException(notFoundMessage);
+        }
+        throw new IllegalStateException("Status or version changed concurrently");
+    }
+    
+    /**
+     * Applies the same transition to each document with its own conditional findAndModify, so every
+     * id is classified by whether its own write matched; the id cap on the bulk endpoints bounds the
+     * round trips. The ids that did not match are then read back with a single $in query to tell a
+     * conflict from a missing document. Documents outside {@code scope} are reported as not found.
+     */
+    public <T> BulkActionResponse applyAll(Class<T> type, List<String> ids, Criteria scope,
+                                           Collection<? extends Enum<?>> from, Enum<?> to, Update update) {
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        String collection = mongoTemplate.getCollectionName(type);
+        update.set("status", to).set("updatedAt", LocalDateTime.now()).inc("version", 1);
+        
+        Set<String> updated = new HashSet<>();
+        for (String id : distinctIds) {
+            Query query = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(id), scope, Criteria.where("status").in(from)));
+            query.fields().include("_id");
+            if (mongoTemplate.findAndModify(query, update, Document.class, collection) != null) {
+                updated.add(id);
+            }
+        }
+        
+        Map<String, String> currentStatus = new HashMap<>();
+        if (updated.size() < distinctIds.size()) {
+            List<String> missed = distinctIds.stream().filter(id -> !updated.contains(id)).toList();
+            Query readBack = Query.query(new Criteria().andOperator(Criteria.where("_id").in(missed), scope));
+            readBack.fields().include("status");
+            for (Document document : mongoTemplate.find(readBack, Document.class, collection)) {
+                currentStatus.put(document.getString("_id"), document.getString("status"));
+            }
+        }
+        
+        List<BulkActionResponse.BulkItemResult> results = new ArrayList<>(distinctIds.size());
+        for (String id : distinctIds) {
+            if (updated.contains(id)) {
+                results.add(new BulkActionResponse.BulkItemResult(id, BulkActionResponse.Outcome.UPDATED, to.name()));
+            } else if (currentStatus.containsKey(id)) {
+                results.add(new BulkActionResponse.BulkItemResult(id, BulkActionResponse.Outcome.CONFLICT,
+                    currentStatus.get(id)));
+            } else {
+                results.add(new BulkActionResponse.BulkItemResult(id, BulkActionResponse.Outcome.NOT_FOUND, null));
+            }
+        }
+        return new BulkActionResponse(distinctIds.size(), updated.size(), results);
+    }
+}
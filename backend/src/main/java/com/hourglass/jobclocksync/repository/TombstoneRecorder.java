@@ -0,0 +1,64 @@
+package com.hourglass.jobclocksync.repository;
+
+import com.hourglass.jobclocksync.model.Tombstone;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeDeleteEvent;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a {@link Tombstone} for every timesheet, invoice, work order or job about to be removed
+ * through MongoTemplate or a repository, so delta sync can report deletions however they are made.
+ * Only the owner fields of the matched documents are read.
+ */
+@Component
+public class TombstoneRecorder extends AbstractMongoEventListener<Object> {
+    
+    private static final Set<String> SYNCED_COLLECTIONS = Set.of("timesheets", "invoices", "workorders", "jobs");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${sync.tombstone-retention-days:30}")
+    private long retentionDays;
+    
+    @Override
+    public void onBeforeDelete(BeforeDeleteEvent<Object> event) {
+        String collection = event.getCollectionName();
+        if (!SYNCED_COLLECTIONS.contains(collection)) {
+            return;
+        }
+        
+        BasicQuery query = new BasicQuery(event.getDocument(), new Document("vendorId", 1).append("companyId", 1));
+        List<Document> deleted = mongoTemplate.find(query, Document.class, collection);
+        if (deleted.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Instant expiresAt = Instant.now().plus(retentionDays, ChronoUnit.DAYS);
+        List<Tombstone> tombstones = deleted.stream()
+            .map(document -> new Tombstone(
+                UUID.randomUUID().toString(),
+                collection,
+                document.get("_id").toString(),
+                document.getString("vendorId"),
+                document.getString("companyId"),
+                now,
+                expiresAt))
+            .collect(Collectors.toList());
+        mongoTemplate.insert(tombstones, Tombstone.class);
+    }
+}
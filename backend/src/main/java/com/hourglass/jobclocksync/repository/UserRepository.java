@@ -2,13 +2,27 @@ package com.hourglass.jobclocksync.repository;
 
 import com.hourglass.jobclocksync.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Listing finders never load password hashes; streams are cursor-backed and must be closed
+    @Query(fields = "{ 'password': 0 }")
+    List<User> findByIdIn(Collection<String> ids);
+    
+    @Query(fields = "{ 'password': 0 }")
+    Stream<User> findByRole(User.UserRole role);
+    
+    @Query(fields = "{ 'password': 0 }")
+    Stream<User> findByRoleAndActive(User.UserRole role, boolean active);
 }
 
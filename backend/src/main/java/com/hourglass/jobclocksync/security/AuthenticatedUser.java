@@ -0,0 +1,22 @@
+package com.hourglass.jobclocksync.security;
+
+import com.hourglass.jobclocksync.model.User;
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal resolved once per request by {@link JwtAuthenticationFilter} from the token claims,
+ * so controllers can read the caller's id and role without loading the User document.
+ */
+@Value
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    String id;
+    String email;
+    User.UserRole role;
+    boolean active;
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,6 +1,8 @@
 package com.hourglass.jobclocksync.security;
 
+import com.hourglass.jobclocksync.model.User;
 import com.hourglass.jobclocksync.util.JwtUtil;
+import com.hourglass.jobclocksync.util.TokenClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,39 +10,56 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    /**
+     * Request attribute holding the caller's role in lower case, read by the HTTP metrics after the
+     * security context has been cleared.
+     */
+    public static final String ROLE_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".role";
+    
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocations tokenRevocations;
+    
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
         
         final String authorizationHeader = request.getHeader("Authorization");
         
-        String email = null;
-        String jwt = null;
-        
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                email = jwtUtil.extractEmail(jwt);
-                if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    if (jwtUtil.validateToken(jwt, email)) {
+                // Single parse: verifies signature and expiry and yields every claim we need
+                TokenClaims claims = jwtUtil.parseToken(jwt);
+                if (claims.getEmail() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // id and role come from the token; logout and deactivation are enforced by the
+                    // in-memory revocation set, so no database lookup happens here
+                    if (!tokenRevocations.isRevoked(claims)) {
+                        AuthenticatedUser principal = new AuthenticatedUser(
+                            claims.getUserId(),
+                            claims.getEmail(),
+                            User.UserRole.valueOf(claims.getRole()),
+                            true);
+                        // ROLE_VENDOR / ROLE_COMPANY / ROLE_ADMIN, checked by @PreAuthorize("hasRole(...)")
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            email, null, new ArrayList<>());
+                            principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name())));
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
+                        request.setAttribute(ROLE_ATTRIBUTE, principal.getRole().name().toLowerCase());
                     }
                 }
             } catch (Exception e) {
@@ -52,4 +71,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 }
-
@@ -0,0 +1,127 @@
+package com.hourglass.jobclocksync.security;
+
+import com.hourglass.jobclocksync.model.RevokedToken;
+import com.hourglass.jobclocksync.util.BloomFilter;
+import com.hourglass.jobclocksync.util.JwtUtil;
+import com.hourglass.jobclocksync.util.TokenClaims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the {@code revoked_tokens} collection, so {@link JwtAuthenticationFilter} can
+ * reject revoked access tokens without touching MongoDB. A Bloom filter answers the common case
+ * (not revoked) from a few bit tests; only possible hits consult the exact map.
+ *
+ * <p>Loaded at startup. Revocations made on this instance apply immediately; those made on other
+ * instances are picked up by polling for new documents every {@code jwt.revocation.poll-interval-ms}.
+ */
+@Component
+public class TokenRevocations {
+    
+    private static final String SESSION_PREFIX = "session:";
+    private static final String USER_PREFIX = "user:";
+    
+    // Allowance for clock differences between instances when polling by revokedAt
+    private static final long POLL_OVERLAP_MS = 5000;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @Value("${jwt.revocation.bloom-bits:1048576}")
+    private long bloomBits;
+    
+    // Revocation key -> expiry in epoch millis
+    private final Map<String, Long> revocations = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastPoll = Instant.EPOCH;
+    
+    @PostConstruct
+    void init() {
+        bloomFilter = new BloomFilter(bloomBits);
+        poll();
+    }
+    
+    public boolean isRevoked(TokenClaims claims) {
+        BloomFilter filter = bloomFilter;
+        if (claims.getTokenId() != null && filter.mightContain(claims.getTokenId())
+                && revocations.containsKey(claims.getTokenId())) {
+            return true;
+        }
+        // Tokens issued before session ids existed fall under the user-wide revocation
+        String sessionKey = claims.getSessionId() != null
+            ? SESSION_PREFIX + claims.getSessionId()
+            : USER_PREFIX + claims.getUserId();
+        return filter.mightContain(sessionKey) && revocations.containsKey(sessionKey);
+    }
+    
+    /**
+     * Revokes one access token until it expires.
+     */
+    public void revokeToken(TokenClaims claims) {
+        if (claims.getTokenId() != null) {
+            revoke(claims.getTokenId(), claims.getExpiration().toInstant());
+        }
+    }
+    
+    /**
+     * Revokes every access token of the given login sessions, plus the user's tokens that predate
+     * session ids. A session id is never reused, so a later login is unaffected however close in time.
+     */
+    public void revokeSessions(String userId, Collection<String> sessionIds) {
+        Instant expiresAt = Instant.now().plusMillis(jwtUtil.getExpirationMillis());
+        for (String sessionId : sessionIds) {
+            revoke(SESSION_PREFIX + sessionId, expiresAt);
+        }
+        revoke(USER_PREFIX + userId, expiresAt);
+    }
+    
+    private void revoke(String key, Instant expiresAt) {
+        add(key, expiresAt.toEpochMilli());
+        mongoTemplate.save(new RevokedToken(key, Instant.now(), expiresAt));
+    }
+    
+    // Serialised with rebuilds so a revocation cannot be lost while the filter is swapped
+    private synchronized void add(String key, long expiresAtMillis) {
+        revocations.merge(key, expiresAtMillis, Math::max);
+        bloomFilter.add(key);
+    }
+    
+    @Scheduled(
+        fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}",
+        initialDelayString = "${jwt.revocation.poll-interval-ms:5000}"
+    )
+    void poll() {
+        Instant pollStart = Instant.now();
+        Query query = new Query(Criteria.where("revokedAt").gte(lastPoll.minusMillis(POLL_OVERLAP_MS))
+            .and("expiresAt").gt(pollStart));
+        for (RevokedToken revoked : mongoTemplate.find(query, RevokedToken.class)) {
+            add(revoked.getId(), revoked.getExpiresAt().toEpochMilli());
+        }
+        lastPoll = pollStart;
+        pruneExpired(pollStart.toEpochMilli());
+    }
+    
+    // Bloom filters cannot forget, so rebuild one from the live entries once some have expired
+    private synchronized void pruneExpired(long nowMillis) {
+        if (!revocations.values().removeIf(expiresAtMillis -> expiresAtMillis <= nowMillis)) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(bloomBits);
+        revocations.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+    }
+}
@@ -2,13 +2,29 @@ package com.hourglass.jobclocksync.service;
 
 import com.hourglass.jobclocksync.dto.LoginRequest;
 import com.hourglass.jobclocksync.dto.LoginResponse;
+import com.hourglass.jobclocksync.model.RefreshToken;
 import com.hourglass.jobclocksync.model.User;
 import com.hourglass.jobclocksync.repository.UserRepository;
+import com.hourglass.jobclocksync.security.TokenRevocations;
+import com.hourglass.jobclocksync.util.Hashes;
 import com.hourglass.jobclocksync.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 public class AuthService {
     
@@ -16,37 +32,167 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+    
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TokenRevocations tokenRevocations;
+    
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
     
     @Autowired
     private JwtUtil jwtUtil;
     
-    public LoginResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
-            .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+    @Autowired
+    private UserCache userCache;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    /**
+     * @throws LoginThrottledException if the account from this client IP, or the IP, has too many recent failures
+     * @throws RejectedExecutionException if password hashing is saturated
+     */
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        loginThrottle.acquire(request.getEmail(), clientIp);
         
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        boolean matches;
+        try {
+            matches = user != null && passwordHasher.matches(request.getPassword(), user.getPassword());
+        } catch (RejectedExecutionException e) {
+            loginThrottle.release(request.getEmail(), clientIp);
+            throw e;
+        }
+        if (!matches) {
             throw new RuntimeException("Invalid email or password");
         }
+        loginThrottle.recordSuccess(request.getEmail(), clientIp);
         
         if (!user.isActive()) {
             throw new RuntimeException("User account is inactive");
         }
         
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name());
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehash(user, request.getPassword());
+        }
+        
+        return issueTokens(user, newRefreshToken(), UUID.randomUUID().toString());
+    }
+    
+    /**
+     * Rotates a refresh token: the presented one is revoked and a new access/refresh pair issued.
+     * Presenting a token that was already rotated means it has been copied, so every refresh token
+     * of that user is revoked.
+     */
+    public LoginResponse refresh(String refreshToken) {
+        String id = Hashes.sha256(refreshToken);
+        String replacement = newRefreshToken();
+        Instant now = Instant.now();
+        
+        RefreshToken used = mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(id).and("revokedAt").is(null).and("expiresAt").gt(now)),
+            new Update().set("revokedAt", now).set("replacedBy", Hashes.sha256(replacement)),
+            RefreshToken.class);
+        if (used == null) {
+            RefreshToken existing = mongoTemplate.findById(id, RefreshToken.class);
+            if (existing != null && existing.getReplacedBy() != null) {
+                revokeSessions(existing.getUserId());
+            }
+            throw new RuntimeException("Invalid refresh token");
+        }
+        
+        User user = userRepository.findById(used.getUserId()).orElse(null);
+        if (user == null || !user.isActive()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        // Refresh tokens from before session ids start a session of their own
+        String sessionId = used.getSessionId() != null ? used.getSessionId() : UUID.randomUUID().toString();
+        return issueTokens(user, replacement, sessionId);
+    }
+    
+    /**
+     * Revokes the refresh token and, when given, the access token; unknown or invalid tokens are ignored.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null) {
+            mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(Hashes.sha256(refreshToken)).and("revokedAt").is(null)),
+                new Update().set("revokedAt", Instant.now()),
+                RefreshToken.class);
+        }
+        if (accessToken != null) {
+            try {
+                tokenRevocations.revokeToken(jwtUtil.parseToken(accessToken));
+            } catch (JwtException e) {
+                // Expired or invalid: nothing left to revoke
+            }
+        }
+    }
+    
+    /**
+     * Ends every session of the user: refresh tokens stop working and access tokens are rejected.
+     */
+    public void revokeSessions(String userId) {
+        Instant now = Instant.now();
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where("userId").is(userId).and("revokedAt").is(null)),
+            new Update().set("revokedAt", now),
+            RefreshToken.class);
+        
+        // An access token is issued right after its refresh token, so any still valid belongs to a
+        // session whose refresh token was created within one access-token lifetime
+        Query live = new Query(Criteria.where("userId").is(userId)
+            .and("createdAt").gte(now.minusMillis(jwtUtil.getExpirationMillis())));
+        List<String> sessionIds = mongoTemplate.findDistinct(live, "sessionId", RefreshToken.class, String.class);
+        tokenRevocations.revokeSessions(userId, sessionIds);
+    }
+    
+    private LoginResponse issueTokens(User user, String refreshToken, String sessionId) {
+        Instant now = Instant.now();
+        mongoTemplate.insert(new RefreshToken(
+            Hashes.sha256(refreshToken), user.getId(), sessionId, now, now.plusMillis(refreshExpiration), null, null));
+        
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name(), sessionId);
         
         return new LoginResponse(
             token,
             user.getId(),
             user.getEmail(),
             user.getName(),
-            user.getRole().name().toLowerCase()
+            user.getRole().name().toLowerCase(),
+            refreshToken,
+            jwtUtil.getExpirationMillis() / 1000
         );
     }
     
+    private String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    // Raises the stored hash to the configured BCrypt cost; skipped if the password changed meanwhile
+    private void rehash(User user, String rawPassword) {
+        String upgraded = passwordHasher.encode(rawPassword);
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(user.getId()).and("password").is(user.getPassword())),
+            new Update().set("password", upgraded).set("updatedAt", LocalDateTime.now()),
+            User.class);
+        userCache.invalidate(user.getEmail());
+    }
+    
     public User getCurrentUser(String email) {
-        return userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.get(email);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return user;
     }
 }
 
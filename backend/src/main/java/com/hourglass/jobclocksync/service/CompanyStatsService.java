@@ -0,0 +1,231 @@
+package com.hourglass.jobclocksync.service;
+
+import com.hourglass.jobclocksync.model.CompanyStats;
+import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Job;
+import com.hourglass.jobclocksync.model.WorkOrder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Maintains the per-company {@link CompanyStats} document so the company dashboard is a single
+ * primary-key read. Increments only touch documents that already exist: a missing document is
+ * computed from source on first read, and all documents are reconciled on a schedule to repair
+ * any drift from failed updates or from a change counted at source before its increment lands.
+ */
+@Service
+public class CompanyStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(CompanyStatsService.class);
+    
+    private static final int RECOMPUTE_ATTEMPTS = 3;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    public CompanyStats getStats(String companyId) {
+        CompanyStats stats = mongoTemplate.findById(companyId, CompanyStats.class);
+        if (stats == null || stats.getReconciledAt() == null) {
+            stats = recompute(companyId);
+        }
+        return stats;
+    }
+    
+    public void workOrderStatusChanged(String companyId, WorkOrder.WorkOrderStatus from, WorkOrder.WorkOrderStatus to) {
+        int delta = inProgressDelta(from, to);
+        if (delta != 0) {
+            increment(companyId, "workOrdersInProgress", delta);
+        }
+    }
+    
+    public void vendorAssigned(String companyId, String vendorId) {
+        if (vendorId == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(companyId)),
+            changed(new Update().addToSet("vendorIds", vendorId)),
+            CompanyStats.class);
+    }
+    
+    /**
+     * Drops the vendor once none of the company's work orders is assigned to it any more. An
+     * assignment racing with the check can leave the vendor out until the next reconcile.
+     */
+    public void vendorUnassigned(String companyId, String vendorId) {
+        boolean stillAssigned = mongoTemplate.exists(
+            Query.query(Criteria.where("companyId").is(companyId).and("vendorId").is(vendorId)),
+            WorkOrder.class);
+        if (stillAssigned) {
+            return;
+        }
+        mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(companyId)),
+            changed(new Update().pull("vendorIds", vendorId)),
+            CompanyStats.class);
+    }
+    
+    /**
+     * @param from the status the change replaced, read atomically with the write
+     */
+    public void jobStatusChanged(String companyId, Job.JobStatus from, Job.JobStatus to) {
+        int delta = (to == Job.JobStatus.OPEN ? 1 : 0) - (from == Job.JobStatus.OPEN ? 1 : 0);
+        if (delta != 0) {
+            increment(companyId, "openPositions", delta);
+        }
+    }
+    
+    public void invoicePaid(String companyId, Double amount, LocalDateTime paidDate) {
+        if (amount == null || paidDate == null) {
+            return;
+        }
+        String month = YearMonth.from(paidDate).toString();
+        
+        // Same month: add to the running total. Otherwise the month rolled over: start a new total.
+        boolean added = mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(companyId).and("spendMonth").is(month)),
+            changed(new Update().inc("monthlySpend", amount)),
+            CompanyStats.class).getMatchedCount() > 0;
+        if (!added) {
+            mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(companyId).and("spendMonth").ne(month)),
+                changed(new Update().set("spendMonth", month).set("monthlySpend", amount)),
+                CompanyStats.class);
+        }
+    }
+    
+    /**
+     * Recomputes the stats of every company that has a materialized document.
+     */
+    @Scheduled(
+        initialDelayString = "${dashboard.stats.reconcile-interval-ms:900000}",
+        fixedDelayString = "${dashboard.stats.reconcile-interval-ms:900000}")
+    public void reconcileAll() {
+        List<String> companyIds = mongoTemplate.findDistinct(new Query(), "_id", CompanyStats.class, String.class);
+        for (String companyId : companyIds) {
+            try {
+                recompute(companyId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile dashboard stats for company {}", companyId, e);
+            }
+        }
+        log.debug("Reconciled dashboard stats for {} companies", companyIds.size());
+    }
+    
+    /**
+     * Counts from the source collections and writes the result only if no incremental change
+     * landed since the counting started, retrying otherwise. A missing document is first created
+     * empty, so increments racing the first computation are not dropped against a missing document.
+     */
+    public CompanyStats recompute(String companyId) {
+        Query byId = Query.query(Criteria.where("_id").is(companyId));
+        mongoTemplate.upsert(byId, new Update().setOnInsert("revision", 0L), CompanyStats.class);
+        
+        CompanyStats stats = null;
+        for (int attempt = 0; attempt < RECOMPUTE_ATTEMPTS; attempt++) {
+            CompanyStats current = mongoTemplate.findOne(byId, CompanyStats.class);
+            long revision = current != null ? current.getRevision() : 0L;
+            
+            stats = count(companyId);
+            // Documents written before revisions existed have no revision field yet
+            Criteria unchanged = revision == 0L
+                ? Criteria.where("revision").in(0L, null)
+                : Criteria.where("revision").is(revision);
+            boolean written = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(companyId).andOperator(unchanged)),
+                new Update()
+                    .set("vendorIds", stats.getVendorIds())
+                    .set("openPositions", stats.getOpenPositions())
+                    .set("workOrdersInProgress", stats.getWorkOrdersInProgress())
+                    .set("spendMonth", stats.getSpendMonth())
+                    .set("monthlySpend", stats.getMonthlySpend())
+                    .set("reconciledAt", stats.getReconciledAt())
+                    .set("updatedAt", stats.getUpdatedAt()),
+                CompanyStats.class).getMatchedCount() > 0;
+            if (written) {
+                stats.setRevision(revision);
+                return stats;
+            }
+        }
+        
+        // Still changing: keep the incrementally maintained values and try again on the next reconcile
+        log.debug("Dashboard stats for company {} changed during {} recomputes", companyId, RECOMPUTE_ATTEMPTS);
+        CompanyStats latest = mongoTemplate.findOne(byId, CompanyStats.class);
+        return latest != null && latest.getReconciledAt() != null ? latest : stats;
+    }
+    
+    private CompanyStats count(String companyId) {
+        LocalDateTime now = LocalDateTime.now();
+        YearMonth month = YearMonth.from(now);
+        
+        List<String> vendorIds = mongoTemplate.findDistinct(
+            Query.query(Criteria.where("companyId").is(companyId).and("vendorId").ne(null)),
+            "vendorId", WorkOrder.class, String.class);
+        
+        long openPositions = mongoTemplate.count(
+            Query.query(Criteria.where("companyId").is(companyId).and("status").is(Job.JobStatus.OPEN)),
+            Job.class);
+        
+        long workOrdersInProgress = mongoTemplate.count(
+            Query.query(Criteria.where("companyId").is(companyId)
+                .and("status").is(WorkOrder.WorkOrderStatus.IN_PROGRESS)),
+            WorkOrder.class);
+        
+        double monthlySpend = sumPaidSince(companyId, month.atDay(1).atStartOfDay());
+        
+        return new CompanyStats(
+            companyId,
+            vendorIds,
+            (int) openPositions,
+            (int) workOrdersInProgress,
+            month.toString(),
+            monthlySpend,
+            0L,
+            now,
+            now);
+    }
+    
+    private void increment(String companyId, String field, int delta) {
+        mongoTemplate.updateFirst(
+            Query.query(Criteria.where("_id").is(companyId)),
+            changed(new Update().inc(field, delta)),
+            CompanyStats.class);
+    }
+    
+    // Every incremental change bumps the revision, so a recompute counting concurrently will not overwrite it
+    private static Update changed(Update update) {
+        return update.inc("revision", 1).set("updatedAt", LocalDateTime.now());
+    }
+    
+    private static int inProgressDelta(WorkOrder.WorkOrderStatus from, WorkOrder.WorkOrderStatus to) {
+        return (to == WorkOrder.WorkOrderStatus.IN_PROGRESS ? 1 : 0)
+            - (from == WorkOrder.WorkOrderStatus.IN_PROGRESS ? 1 : 0);
+    }
+    
+    private double sumPaidSince(String companyId, LocalDateTime since) {
+        TypedAggregation<Invoice> aggregation = Aggregation.newAggregation(Invoice.class,
+            Aggregation.match(Criteria.where("companyId").is(companyId)
+                .and("status").is(Invoice.InvoiceStatus.PAID)
+                .and("paidDate").gte(since)),
+            Aggregation.group().sum("totalAmount").as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null || result.get("total") == null) {
+            return 0.0;
+        }
+        return ((Number) result.get("total")).doubleValue();
+    }
+}
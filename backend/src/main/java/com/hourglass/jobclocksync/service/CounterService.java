@@ -0,0 +1,119 @@
+package com.hourglass.jobclocksync.service;
+
+import com.hourglass.jobclocksync.model.Counter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Allocates collision-free sequence numbers from per-name counter documents.
+ * Each instance reserves a block of numbers with one atomic findAndModify and hands them out
+ * from memory, so most calls never touch MongoDB. Numbers are unique across instances but may
+ * leave gaps when an instance restarts with part of a block unused. Refills lock only their own
+ * counter, never the map, so a slow round trip does not stall other counters.
+ */
+@Service
+public class CounterService {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${counters.block-size:20}")
+    private int blockSize;
+    
+    private final ConcurrentHashMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+    
+    /**
+     * Returns the next value of the named counter.
+     *
+     * @param seed last value already in use, consulted only when the counter document does not exist yet
+     */
+    public long next(String name, LongSupplier seed) {
+        Sequence sequence = sequences.computeIfAbsent(name, key -> new Sequence());
+        while (true) {
+            Block block = sequence.block;
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value <= block.last) {
+                    return value;
+                }
+            }
+            synchronized (sequence) {
+                // Another thread may have refilled while this one waited
+                if (sequence.block == block) {
+                    if (block == null) {
+                        ensureCounterExists(name, seed);
+                    }
+                    sequence.block = reserveBlock(name);
+                }
+            }
+        }
+    }
+    
+    /**
+     * The highest number after the prefix among the values of an indexed field, e.g. 42 for
+     * INV-2024-0042, or 0 when none start with the prefix. Used to seed a counter from numbers
+     * issued before it existed; reads only the matching index range.
+     *
+     * @param prefix a literal prefix without regex metacharacters
+     */
+    public long maxIssued(Class<?> type, String field, String prefix) {
+        Query query = Query.query(Criteria.where(field).regex("^" + prefix));
+        query.fields().include(field).exclude("_id");
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(type))) {
+            return documents
+                .map(document -> document.getString(field).substring(prefix.length()))
+                .filter(suffix -> !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit))
+                .mapToLong(Long::parseLong)
+                .max()
+                .orElse(0);
+        }
+    }
+    
+    private Block reserveBlock(String name) {
+        Counter counter = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(name)),
+            new Update().inc("seq", blockSize),
+            FindAndModifyOptions.options().returnNew(true).upsert(true),
+            Counter.class);
+        long last = counter.getSeq();
+        return new Block(last - blockSize + 1, last);
+    }
+    
+    private void ensureCounterExists(String name, LongSupplier seed) {
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(name)), Counter.class)) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(new Counter(name, seed.getAsLong()));
+        } catch (DuplicateKeyException e) {
+            // Another instance created it first
+        }
+    }
+    
+    private static class Sequence {
+        private volatile Block block;
+    }
+    
+    private static class Block {
+        private final AtomicLong next;
+        private final long last;
+        
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -1,99 +1,94 @@
 package com.hourglass.jobclocksync.service;
 
 import com.hourglass.jobclocksync.dto.DashboardStatsResponse;
+import com.hourglass.jobclocksync.model.CompanyStats;
 import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Job;
 import com.hourglass.jobclocksync.model.Timesheet;
 import com.hourglass.jobclocksync.model.WorkOrder;
-import com.hourglass.jobclocksync.repository.*;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class DashboardService {
     
     @Autowired
-    private WorkOrderRepository workOrderRepository;
+    private CompanyStatsService companyStatsService;
     
     @Autowired
-    private InvoiceRepository invoiceRepository;
+    private MongoTemplate mongoTemplate;
     
+    // A bounded platform pool, or a virtual thread per task when spring.threads.virtual.enabled is on
     @Autowired
-    private TimesheetRepository timesheetRepository;
-    
-    @Autowired
-    private JobRepository jobRepository;
-    
-    @Autowired
-    private UserRepository userRepository;
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
     
     public DashboardStatsResponse getVendorStats(String vendorId) {
-        List<WorkOrder> workOrders = workOrderRepository.findByVendorId(vendorId);
-        List<Invoice> pendingInvoices = invoiceRepository.findByVendorIdAndStatus(
-            vendorId, Invoice.InvoiceStatus.PENDING);
-        List<Timesheet> timesheets = timesheetRepository.findByVendorId(vendorId);
-        
-        int activeJobs = (int) jobRepository.findAll().stream()
-            .filter(job -> job.getApplicantIds() != null && job.getApplicantIds().contains(vendorId))
-            .count();
+        // Four independent server-side counts/sums, issued concurrently; no documents are loaded
+        CompletableFuture<Long> activeJobs = CompletableFuture.supplyAsync(() -> mongoTemplate.count(
+            Query.query(Criteria.where("applicantIds").is(vendorId)), Job.class), taskExecutor);
         
-        int workOrdersInProgress = (int) workOrders.stream()
-            .filter(wo -> wo.getStatus() == WorkOrder.WorkOrderStatus.IN_PROGRESS)
-            .count();
+        CompletableFuture<Long> workOrdersInProgress = CompletableFuture.supplyAsync(() -> mongoTemplate.count(
+            Query.query(Criteria.where("vendorId").is(vendorId)
+                .and("status").is(WorkOrder.WorkOrderStatus.IN_PROGRESS)), WorkOrder.class), taskExecutor);
         
-        double totalHours = timesheets.stream()
-            .filter(ts -> ts.getStatus() == Timesheet.TimesheetStatus.APPROVED)
-            .mapToDouble(ts -> ts.getTotalHours() != null ? ts.getTotalHours() : 0.0)
-            .sum();
+        CompletableFuture<Double> totalHours = CompletableFuture.supplyAsync(() -> sum(
+            Timesheet.class,
+            Criteria.where("vendorId").is(vendorId).and("status").is(Timesheet.TimesheetStatus.APPROVED),
+            "totalHours"), taskExecutor);
         
-        double pendingInvoicesAmount = pendingInvoices.stream()
-            .mapToDouble(inv -> inv.getTotalAmount() != null ? inv.getTotalAmount() : 0.0)
-            .sum();
+        CompletableFuture<Double> pendingInvoicesAmount = CompletableFuture.supplyAsync(() -> sum(
+            Invoice.class,
+            Criteria.where("vendorId").is(vendorId).and("status").is(Invoice.InvoiceStatus.PENDING),
+            "totalAmount"), taskExecutor);
         
         return new DashboardStatsResponse(
-            activeJobs,
-            workOrdersInProgress,
-            totalHours,
-            pendingInvoicesAmount,
+            activeJobs.join().intValue(),
+            workOrdersInProgress.join().intValue(),
+            totalHours.join(),
+            pendingInvoicesAmount.join(),
             null, null, null, null
         );
     }
     
     public DashboardStatsResponse getCompanyStats(String companyId) {
-        List<WorkOrder> workOrders = workOrderRepository.findByCompanyId(companyId);
-        List<Invoice> invoices = invoiceRepository.findByCompanyId(companyId);
-        
-        int activeVendors = (int) workOrders.stream()
-            .filter(wo -> wo.getVendorId() != null)
-            .map(WorkOrder::getVendorId)
-            .distinct()
-            .count();
+        // Single primary-key read of the materialized counters
+        CompanyStats stats = companyStatsService.getStats(companyId);
         
-        int openPositions = (int) jobRepository.findByCompanyId(companyId).stream()
-            .filter(job -> job.getStatus() == com.hourglass.jobclocksync.model.Job.JobStatus.OPEN)
-            .count();
-        
-        int workOrdersInProgress = (int) workOrders.stream()
-            .filter(wo -> wo.getStatus() == WorkOrder.WorkOrderStatus.IN_PROGRESS)
-            .count();
-        
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0);
-        double monthlySpend = invoices.stream()
-            .filter(inv -> inv.getStatus() == Invoice.InvoiceStatus.PAID)
-            .filter(inv -> inv.getPaidDate() != null && inv.getPaidDate().isAfter(startOfMonth))
-            .mapToDouble(inv -> inv.getTotalAmount() != null ? inv.getTotalAmount() : 0.0)
-            .sum();
+        int activeVendors = stats.getVendorIds() != null ? stats.getVendorIds().size() : 0;
+        double monthlySpend = YearMonth.now().toString().equals(stats.getSpendMonth()) ? stats.getMonthlySpend() : 0.0;
         
         return new DashboardStatsResponse(
             null, null, null, null,
             activeVendors,
-            openPositions,
-            workOrdersInProgress,
+            Math.max(stats.getOpenPositions(), 0),
+            Math.max(stats.getWorkOrdersInProgress(), 0),
             monthlySpend
         );
     }
+    
+    /**
+     * Sums a numeric field over the documents matching the criteria with a $match/$group pipeline.
+     */
+    private double sum(Class<?> type, Criteria criteria, String field) {
+        TypedAggregation<?> aggregation = Aggregation.newAggregation(type,
+            Aggregation.match(criteria),
+            Aggregation.group().sum(field).as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null || result.get("total") == null) {
+            return 0.0;
+        }
+        return ((Number) result.get("total")).doubleValue();
+    }
 }
-
@@ -1,17 +1,35 @@
 package com.hourglass.jobclocksync.service;
 
+import com.hourglass.jobclocksync.dto.BulkActionResponse;
+import com.hourglass.jobclocksync.dto.CursorPage;
 import com.hourglass.jobclocksync.dto.InvoiceRequest;
 import com.hourglass.jobclocksync.dto.InvoiceResponse;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.repository.CollectionVersions;
 import com.hourglass.jobclocksync.repository.InvoiceRepository;
+import com.hourglass.jobclocksync.repository.KeysetPager;
+import com.hourglass.jobclocksync.repository.ReactiveLists;
+import com.hourglass.jobclocksync.repository.StatusTransitions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class InvoiceService {
@@ -19,10 +37,38 @@ public class InvoiceService {
     @Autowired
     private InvoiceRepository invoiceRepository;
     
+    private static final int EXPORT_BATCH_SIZE = 500;
+    
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private ReactiveLists reactiveLists;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private StatusTransitions statusTransitions;
+    
+    @Autowired
+    private CounterService counterService;
+    
+    @Autowired
+    private CompanyStatsService companyStatsService;
+    
     public InvoiceResponse createInvoice(InvoiceRequest request, String vendorId, String companyId) {
+        Invoice saved = invoiceRepository.save(toEntity(request, vendorId, companyId, generateInvoiceNumber()));
+        return InvoiceResponse.fromEntity(saved);
+    }
+    
+    Invoice toEntity(InvoiceRequest request, String vendorId, String companyId, String invoiceNumber) {
         Invoice invoice = new Invoice();
         invoice.setId(UUID.randomUUID().toString());
-        invoice.setInvoiceNumber(generateInvoiceNumber());
+        invoice.setInvoiceNumber(invoiceNumber);
         invoice.setVendorId(vendorId);
         invoice.setCompanyId(companyId);
         invoice.setWorkOrderId(request.getWorkOrderId());
@@ -57,72 +103,122 @@ public class InvoiceService {
         
         invoice.setCreatedAt(LocalDateTime.now());
         invoice.setUpdatedAt(LocalDateTime.now());
-        
-        Invoice saved = invoiceRepository.save(invoice);
-        return InvoiceResponse.fromEntity(saved);
+        return invoice;
     }
     
-    public List<InvoiceResponse> getInvoicesByVendor(String vendorId) {
-        return invoiceRepository.findByVendorId(vendorId).stream()
-            .map(InvoiceResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<InvoiceResponse> getInvoicesByVendor(String vendorId, ListQuery query) {
+        return findPage(Criteria.where("vendorId").is(vendorId), query);
     }
     
-    public List<InvoiceResponse> getInvoicesByCompany(String companyId) {
-        return invoiceRepository.findByCompanyId(companyId).stream()
-            .map(InvoiceResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<InvoiceResponse> getInvoicesByCompany(String companyId, ListQuery query) {
+        return findPage(Criteria.where("companyId").is(companyId), query);
     }
     
-    public InvoiceResponse submitInvoice(String id) {
-        Invoice invoice = invoiceRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Invoice not found"));
-        
-        invoice.setStatus(Invoice.InvoiceStatus.PENDING);
-        invoice.setUpdatedAt(LocalDateTime.now());
-        
-        Invoice saved = invoiceRepository.save(invoice);
-        return InvoiceResponse.fromEntity(saved);
+    public String getInvoicesVersionByVendor(String vendorId) {
+        return collectionVersions.version(Invoice.class, Criteria.where("vendorId").is(vendorId));
     }
     
-    public InvoiceResponse approveInvoice(String id) {
-        Invoice invoice = invoiceRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Invoice not found"));
-        
-        invoice.setStatus(Invoice.InvoiceStatus.APPROVED);
-        invoice.setUpdatedAt(LocalDateTime.now());
-        
-        Invoice saved = invoiceRepository.save(invoice);
-        return InvoiceResponse.fromEntity(saved);
+    public String getInvoicesVersionByCompany(String companyId) {
+        return collectionVersions.version(Invoice.class, Criteria.where("companyId").is(companyId));
     }
     
-    public InvoiceResponse rejectInvoice(String id) {
-        Invoice invoice = invoiceRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Invoice not found"));
-        
-        invoice.setStatus(Invoice.InvoiceStatus.REJECTED);
-        invoice.setUpdatedAt(LocalDateTime.now());
-        
-        Invoice saved = invoiceRepository.save(invoice);
-        return InvoiceResponse.fromEntity(saved);
+    public Flux<InvoiceResponse> streamInvoicesByVendor(String vendorId, ListQuery query) {
+        return stream(Criteria.where("vendorId").is(vendorId), query);
+    }
+    
+    public Flux<InvoiceResponse> streamInvoicesByCompany(String companyId, ListQuery query) {
+        return stream(Criteria.where("companyId").is(companyId), query);
+    }
+    
+    public Stream<InvoiceResponse> exportInvoicesByVendor(String vendorId, ListQuery query) {
+        return export(Criteria.where("vendorId").is(vendorId), query);
+    }
+    
+    public Stream<InvoiceResponse> exportInvoicesByCompany(String companyId, ListQuery query) {
+        return export(Criteria.where("companyId").is(companyId), query);
     }
     
-    public InvoiceResponse markInvoiceAsPaid(String id) {
-        Invoice invoice = invoiceRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Invoice not found"));
+    // Oldest first straight from a MongoDB cursor; the caller must close the stream
+    private Stream<InvoiceResponse> export(Criteria scope, ListQuery query) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(withStatus(scope, query));
+        Criteria range = KeysetPager.createdBetween(query);
+        if (range != null) {
+            clauses.add(range);
+        }
         
-        invoice.setStatus(Invoice.InvoiceStatus.PAID);
-        invoice.setPaidDate(LocalDateTime.now());
-        invoice.setUpdatedAt(LocalDateTime.now());
+        Query exportQuery = Query.query(new Criteria().andOperator(clauses.toArray(new Criteria[0])))
+            .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+            .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(exportQuery, Invoice.class).map(InvoiceResponse::fromEntity);
+    }
+    
+    private Flux<InvoiceResponse> stream(Criteria scope, ListQuery query) {
+        return reactiveLists.stream(Invoice.class, withStatus(scope, query), query).map(InvoiceResponse::fromEntity);
+    }
+    
+    private CursorPage<InvoiceResponse> findPage(Criteria scope, ListQuery query) {
+        return keysetPager.page(Invoice.class, withStatus(scope, query), query, Invoice::getCreatedAt, Invoice::getId)
+            .map(InvoiceResponse::fromEntity);
+    }
+    
+    private static Criteria withStatus(Criteria scope, ListQuery query) {
+        if (StringUtils.hasText(query.getStatus())) {
+            scope = scope.and("status").is(Invoice.InvoiceStatus.valueOf(query.getStatus().toUpperCase()));
+        }
+        return scope;
+    }
+    
+    public InvoiceResponse submitInvoice(String id, Long expectedVersion) {
+        Update update = Update.update("status", Invoice.InvoiceStatus.PENDING);
+        Invoice updated = transition(id, EnumSet.of(Invoice.InvoiceStatus.DRAFT, Invoice.InvoiceStatus.REJECTED),
+            update, expectedVersion);
+        return InvoiceResponse.fromEntity(updated);
+    }
+    
+    public InvoiceResponse approveInvoice(String id, Long expectedVersion) {
+        Update update = Update.update("status", Invoice.InvoiceStatus.APPROVED);
+        Invoice updated = transition(id, EnumSet.of(Invoice.InvoiceStatus.PENDING), update, expectedVersion);
+        return InvoiceResponse.fromEntity(updated);
+    }
+    
+    public InvoiceResponse rejectInvoice(String id, Long expectedVersion) {
+        Update update = Update.update("status", Invoice.InvoiceStatus.REJECTED);
+        Invoice updated = transition(id, EnumSet.of(Invoice.InvoiceStatus.PENDING), update, expectedVersion);
+        return InvoiceResponse.fromEntity(updated);
+    }
+    
+    public InvoiceResponse markInvoiceAsPaid(String id, Long expectedVersion) {
+        Update update = Update.update("status", Invoice.InvoiceStatus.PAID)
+            .set("paidDate", LocalDateTime.now());
+        Invoice updated = transition(id, EnumSet.of(Invoice.InvoiceStatus.APPROVED), update, expectedVersion);
         
-        Invoice saved = invoiceRepository.save(invoice);
-        return InvoiceResponse.fromEntity(saved);
+        // The conditional update succeeds once per invoice, so spend is never counted twice
+        companyStatsService.invoicePaid(updated.getCompanyId(), updated.getTotalAmount(), updated.getPaidDate());
+        return InvoiceResponse.fromEntity(updated);
+    }
+    
+    public BulkActionResponse bulkApprove(List<String> ids, String companyId) {
+        return statusTransitions.applyAll(Invoice.class, ids, Criteria.where("companyId").is(companyId),
+            EnumSet.of(Invoice.InvoiceStatus.PENDING), Invoice.InvoiceStatus.APPROVED, new Update());
+    }
+    
+    public BulkActionResponse bulkReject(List<String> ids, String companyId) {
+        return statusTransitions.applyAll(Invoice.class, ids, Criteria.where("companyId").is(companyId),
+            EnumSet.of(Invoice.InvoiceStatus.PENDING), Invoice.InvoiceStatus.REJECTED, new Update());
+    }
+    
+    private Invoice transition(String id, Set<Invoice.InvoiceStatus> from, Update update, Long expectedVersion) {
+        return statusTransitions.apply(Invoice.class, id, from, update, expectedVersion, true, "Invoice not found");
     }
     
     private String generateInvoiceNumber() {
         int year = LocalDateTime.now().getYear();
-        long count = invoiceRepository.count();
-        return String.format("INV-%d-%04d", year, count + 1);
+        // Seeded from this year's highest number so numbers issued before the counter existed are never reused
+        String prefix = "INV-" + year + "-";
+        long sequence = counterService.next("INV-" + year,
+            () -> counterService.maxIssued(Invoice.class, "invoiceNumber", prefix));
+        return String.format("INV-%d-%04d", year, sequence);
     }
 }
 
@@ -1,18 +1,35 @@
 package com.hourglass.jobclocksync.service;
 
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.JobApplicationResponse;
 import com.hourglass.jobclocksync.dto.JobRequest;
 import com.hourglass.jobclocksync.dto.JobResponse;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.UserResponse;
 import com.hourglass.jobclocksync.model.Job;
 import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.repository.CollectionVersions;
 import com.hourglass.jobclocksync.repository.JobRepository;
+import com.hourglass.jobclocksync.repository.KeysetPager;
+import com.hourglass.jobclocksync.repository.ReactiveLists;
 import com.hourglass.jobclocksync.repository.UserRepository;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +41,21 @@ public class JobService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private ReactiveLists reactiveLists;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private CompanyStatsService companyStatsService;
+    
     public JobResponse createJob(JobRequest request, String companyId) {
         Job job = new Job();
         job.setId(UUID.randomUUID().toString());
@@ -43,78 +75,164 @@ public class JobService {
         return JobResponse.fromEntity(saved);
     }
     
-    public List<JobResponse> getJobsByCompany(String companyId) {
-        return jobRepository.findByCompanyId(companyId).stream()
-            .map(JobResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<JobResponse> getJobsByCompany(String companyId, ListQuery query) {
+        return findPage(companyScope(companyId, query), query);
     }
     
-    public List<JobResponse> getOpenJobs() {
-        return jobRepository.findByStatus(Job.JobStatus.OPEN).stream()
-            .map(JobResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<JobResponse> getOpenJobs(ListQuery query) {
+        return findPage(Criteria.where("status").is(Job.JobStatus.OPEN), query);
     }
     
+    public String getJobsVersionByCompany(String companyId) {
+        return collectionVersions.version(Job.class, Criteria.where("companyId").is(companyId));
+    }
+    
+    public String getOpenJobsVersion() {
+        return collectionVersions.version(Job.class, Criteria.where("status").is(Job.JobStatus.OPEN));
+    }
+    
+    public Flux<JobResponse> streamJobsByCompany(String companyId, ListQuery query) {
+        return stream(companyScope(companyId, query), query);
+    }
+    
+    public Flux<JobResponse> streamOpenJobs(ListQuery query) {
+        return stream(Criteria.where("status").is(Job.JobStatus.OPEN), query);
+    }
+    
+    private static Criteria companyScope(String companyId, ListQuery query) {
+        Criteria scope = Criteria.where("companyId").is(companyId);
+        if (StringUtils.hasText(query.getStatus())) {
+            scope = scope.and("status").is(Job.JobStatus.valueOf(query.getStatus().toUpperCase()));
+        }
+        return scope;
+    }
+    
+    private Flux<JobResponse> stream(Criteria scope, ListQuery query) {
+        return reactiveLists.stream(Job.class, scope, query).map(JobResponse::fromEntity);
+    }
+    
+    private CursorPage<JobResponse> findPage(Criteria scope, ListQuery query) {
+        return keysetPager.page(Job.class, scope, query, Job::getCreatedAt, Job::getId)
+            .map(JobResponse::fromEntity);
+    }
+    
+    /**
+     * Sets the status with one findAndModify that returns the pre-image, so the open-positions delta
+     * is computed from the status this write actually replaced, even when changes race.
+     */
     public JobResponse updateJobStatus(String id, Job.JobStatus status) {
-        Job job = jobRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Job not found"));
+        LocalDateTime now = LocalDateTime.now();
+        Job job = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(id)),
+            new Update().set("status", status).set("updatedAt", now),
+            FindAndModifyOptions.options().returnNew(false),
+            Job.class);
+        if (job == null) {
+            throw new RuntimeException("Job not found");
+        }
         
+        Job.JobStatus previousStatus = job.getStatus();
         job.setStatus(status);
-        job.setUpdatedAt(LocalDateTime.now());
-        
-        Job saved = jobRepository.save(job);
-        return JobResponse.fromEntity(saved);
+        job.setUpdatedAt(now);
+        companyStatsService.jobStatusChanged(job.getCompanyId(), previousStatus, status);
+        return JobResponse.fromEntity(job);
     }
     
-    public JobResponse applyForJob(String jobId, String vendorId) {
-        Job job = jobRepository.findById(jobId)
-            .orElseThrow(() -> new RuntimeException("Job not found"));
-        
-        if (job.getApplicantIds() == null) {
-            job.setApplicantIds(new java.util.ArrayList<>());
-        }
+    /**
+     * Adds the vendor to the job's applicants with a single atomic update, so concurrent
+     * applications never overwrite each other and the job document is not rewritten.
+     */
+    public JobApplicationResponse applyForJob(String jobId, String vendorId) {
+        Query query = Query.query(Criteria.where("_id").is(jobId).and("applicantIds").ne(vendorId));
+        Update update = new Update()
+            .addToSet("applicantIds", vendorId)
+            .currentDate("updatedAt");
         
-        if (!job.getApplicantIds().contains(vendorId)) {
-            job.getApplicantIds().add(vendorId);
+        UpdateResult result = mongoTemplate.updateFirst(query, update, Job.class);
+        if (result.getMatchedCount() == 0) {
+            if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(jobId)), Job.class)) {
+                throw new RuntimeException("Job not found");
+            }
+            return new JobApplicationResponse(jobId, vendorId, true);
         }
-        
-        job.setUpdatedAt(LocalDateTime.now());
-        
-        Job saved = jobRepository.save(job);
-        return JobResponse.fromEntity(saved);
+        return new JobApplicationResponse(jobId, vendorId, false);
     }
     
+    /**
+     * Sets only the editable fields, so an edit never writes back a stale status or applicant list
+     * read before a concurrent application or status change.
+     */
     public JobResponse updateJob(String id, JobRequest request) {
-        Job job = jobRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Job not found"));
+        Update update = new Update()
+            .set("title", request.getTitle())
+            .set("description", request.getDescription())
+            .set("location", request.getLocation())
+            .set("requiredSkills", request.getRequiredSkills())
+            .set("salaryMin", request.getSalaryMin())
+            .set("salaryMax", request.getSalaryMax())
+            .set("employmentType", request.getEmploymentType())
+            .set("updatedAt", LocalDateTime.now());
         
-        job.setTitle(request.getTitle());
-        job.setDescription(request.getDescription());
-        job.setLocation(request.getLocation());
-        job.setRequiredSkills(request.getRequiredSkills());
-        job.setSalaryMin(request.getSalaryMin());
-        job.setSalaryMax(request.getSalaryMax());
-        job.setEmploymentType(request.getEmploymentType());
-        job.setUpdatedAt(LocalDateTime.now());
-        
-        Job saved = jobRepository.save(job);
-        return JobResponse.fromEntity(saved);
+        Job job = mongoTemplate.findAndModify(
+            Query.query(Criteria.where("_id").is(id)),
+            update,
+            FindAndModifyOptions.options().returnNew(true),
+            Job.class);
+        if (job == null) {
+            throw new RuntimeException("Job not found");
+        }
+        return JobResponse.fromEntity(job);
     }
     
-    public List<UserResponse> getJobApplicants(String jobId) {
-        Job job = jobRepository.findById(jobId)
-            .orElseThrow(() -> new RuntimeException("Job not found"));
+    /**
+     * Pages through a job's applicants in application order. Only the requested slice of
+     * applicantIds is read from the job, and the users are fetched with a single $in query.
+     * The cursor is the offset of the next page.
+     */
+    public CursorPage<UserResponse> getJobApplicants(String jobId, ListQuery params) {
+        int limit = KeysetPager.resolveLimit(params.getLimit());
+        int offset = parseOffset(params.getCursor());
         
-        if (job.getApplicantIds() == null || job.getApplicantIds().isEmpty()) {
-            return List.of();
+        Query jobQuery = Query.query(Criteria.where("_id").is(jobId));
+        jobQuery.fields().slice("applicantIds", offset, limit + 1).exclude("description");
+        Job job = mongoTemplate.findOne(jobQuery, Job.class);
+        if (job == null) {
+            throw new RuntimeException("Job not found");
         }
         
-        return job.getApplicantIds().stream()
-            .map(vendorId -> userRepository.findById(vendorId))
-            .filter(java.util.Optional::isPresent)
-            .map(java.util.Optional::get)
+        List<String> applicantIds = job.getApplicantIds() == null ? List.of() : job.getApplicantIds();
+        String nextCursor = null;
+        if (applicantIds.size() > limit) {
+            applicantIds = applicantIds.subList(0, limit);
+            nextCursor = String.valueOf(offset + limit);
+        }
+        if (applicantIds.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        Map<String, User> usersById = userRepository.findByIdIn(applicantIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> applicants = applicantIds.stream()
+            .map(usersById::get)
+            .filter(Objects::nonNull)
             .map(UserResponse::fromEntity)
             .collect(Collectors.toList());
+        return new CursorPage<>(applicants, nextCursor);
+    }
+    
+    private static int parseOffset(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
     }
 }
 
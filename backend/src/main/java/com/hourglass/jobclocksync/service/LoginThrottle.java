@@ -0,0 +1,111 @@
+package com.hourglass.jobclocksync.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts login attempts per account and client IP pair, and per client IP, in fixed windows that
+ * start at the first attempt. Keying the account limit on the client means nobody can lock another
+ * user out by guessing their password from elsewhere. Each attempt is counted before the password
+ * is checked and compared against the limit in the same atomic step, so a concurrent burst cannot
+ * slip past it; a successful login gives its attempt back.
+ */
+@Component
+public class LoginThrottle {
+    
+    @Value("${auth.throttle.max-failures-per-account-ip:5}")
+    private int maxFailuresPerAccountIp;
+    
+    @Value("${auth.throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+    
+    @Value("${auth.throttle.window-seconds:900}")
+    private long windowSeconds;
+    
+    @Value("${auth.throttle.max-tracked:100000}")
+    private long maxTracked;
+    
+    // Entries are only written when created, so each one expires a window after its first attempt
+    private Cache<String, Window> attempts;
+    
+    @PostConstruct
+    void init() {
+        attempts = Caffeine.newBuilder()
+            .maximumSize(maxTracked)
+            .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+            .build();
+    }
+    
+    /**
+     * Counts a login attempt; it stays counted as a failure unless {@link #recordSuccess} or
+     * {@link #release} follows.
+     *
+     * @throws LoginThrottledException if the account from this IP, or the IP, has used up its attempts
+     */
+    public void acquire(String email, String clientIp) {
+        Window accountIp = window(accountIpKey(email, clientIp));
+        Window ip = window(ipKey(clientIp));
+        boolean accountIpExceeded = accountIp.count.incrementAndGet() > maxFailuresPerAccountIp;
+        boolean ipExceeded = ip.count.incrementAndGet() > maxFailuresPerIp;
+        if (!accountIpExceeded && !ipExceeded) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        long retryAfterMs = Math.max(
+            accountIpExceeded ? accountIp.remainingMillis(now) : 0,
+            ipExceeded ? ip.remainingMillis(now) : 0);
+        throw new LoginThrottledException(Math.max(1, (retryAfterMs + 999) / 1000));
+    }
+    
+    public void recordSuccess(String email, String clientIp) {
+        attempts.invalidate(accountIpKey(email, clientIp));
+        give(ipKey(clientIp));
+    }
+    
+    /**
+     * Gives the attempt back when the password could not be checked at all.
+     */
+    public void release(String email, String clientIp) {
+        give(accountIpKey(email, clientIp));
+        give(ipKey(clientIp));
+    }
+    
+    private Window window(String key) {
+        return attempts.get(key, k -> new Window(System.currentTimeMillis()));
+    }
+    
+    private void give(String key) {
+        Window window = attempts.getIfPresent(key);
+        if (window != null) {
+            window.count.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+    
+    private static String accountIpKey(String email, String clientIp) {
+        return "account:" + email.trim().toLowerCase() + "|" + clientIp;
+    }
+    
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+    
+    private class Window {
+        private final AtomicInteger count = new AtomicInteger();
+        private final long startedAtMillis;
+        
+        Window(long startedAtMillis) {
+            this.startedAtMillis = startedAtMillis;
+        }
+        
+        long remainingMillis(long now) {
+            return Math.max(0, startedAtMillis + windowSeconds * 1000 - now);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hourglass.jobclocksync.service;
+
+/**
+ * Thrown by {@link LoginThrottle} when too many logins have failed; mapped to 429.
+ */
+public class LoginThrottledException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Too many failed login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
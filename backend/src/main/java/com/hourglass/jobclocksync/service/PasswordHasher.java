@@ -0,0 +1,99 @@
+package com.hourglass.jobclocksync.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a fixed pool sized to the CPU count with a bounded queue, so a burst of logins
+ * cannot occupy every request thread with hashing. When the queue is full, or a hash does not
+ * finish within the timeout, callers get a {@link RejectedExecutionException} (mapped to 503).
+ * <p>
+ * A timeout releases the caller, not the pool: a hash still queued is cancelled before it starts,
+ * but one already running finishes, because BCrypt never checks for interruption. Keep
+ * queue-capacity times the hash time divided by the thread count below the timeout, so that
+ * requests fail fast on a full queue rather than time out behind work nobody is waiting for.
+ */
+@Component
+public class PasswordHasher {
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    // 0 = one thread per available processor
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${auth.hashing.queue-capacity:200}")
+    private int queueCapacity;
+    
+    @Value("${auth.hashing.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+    
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+    
+    /**
+     * True when the hash was made with a lower cost than the configured one.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+    
+    private <T> T run(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Stops the task if it is still queued; a running hash cannot be interrupted
+            future.cancel(false);
+            throw new RejectedExecutionException("Password check timed out");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for password check");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
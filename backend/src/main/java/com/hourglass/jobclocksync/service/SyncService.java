@@ -0,0 +1,264 @@
+package com.hourglass.jobclocksync.service;
+
+import com.hourglass.jobclocksync.dto.InvoiceResponse;
+import com.hourglass.jobclocksync.dto.JobResponse;
+import com.hourglass.jobclocksync.dto.SyncResponse;
+import com.hourglass.jobclocksync.dto.TimesheetResponse;
+import com.hourglass.jobclocksync.dto.WorkOrderResponse;
+import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Job;
+import com.hourglass.jobclocksync.model.Timesheet;
+import com.hourglass.jobclocksync.model.Tombstone;
+import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.model.WorkOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync of the caller's timesheets, invoices, work orders and jobs. Changes are read in
+ * (updatedAt, _id) order from the (owner, updatedAt) indexes and deletions from tombstones.
+ * Writes newer than sync.settle-ms are left for the next sync, so a write stamped just before the
+ * returned watermark but committed after the read is never skipped. A sync with more changes than
+ * sync.max-changes in a collection is continued through an opaque cursor rather than a watermark,
+ * so a large first sync is never refused for starting further back than the tombstone retention.
+ * <p>
+ * Tombstones are only written when a synced document is removed (see TombstoneRecorder), and no
+ * code path removes timesheets, invoices, work orders or jobs yet, so the deleted lists are empty
+ * apart from jobs a vendor can no longer see. An empty list is not proof that nothing was deleted
+ * by other means, such as directly in the database.
+ */
+@Service
+public class SyncService {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${sync.max-changes:500}")
+    private int maxChanges;
+    
+    @Value("${sync.settle-ms:2000}")
+    private long settleMillis;
+    
+    @Value("${sync.tombstone-retention-days:30}")
+    private long retentionDays;
+    
+    /**
+     * @param since the watermark of the previous sync, or null for everything
+     * @param cursor the cursor of the previous, incomplete response; takes the place of since
+     * @throws IllegalArgumentException if the watermark or cursor is malformed, or both are given
+     * @throws IllegalStateException if deletions since the watermark may already have expired from
+     *         the tombstones, so the client must sync from scratch
+     */
+    public SyncResponse sync(String userId, User.UserRole role, String since, String cursor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.minus(settleMillis, ChronoUnit.MILLIS).truncatedTo(ChronoUnit.MILLIS);
+        Window window;
+        if (StringUtils.hasText(cursor)) {
+            if (StringUtils.hasText(since)) {
+                throw new IllegalArgumentException("since and cursor are mutually exclusive");
+            }
+            window = decodeCursor(cursor, horizon);
+        } else {
+            LocalDateTime watermark = parseWatermark(since);
+            if (watermark != null && tombstonesExpiredSince(watermark, now)) {
+                throw new IllegalStateException("Watermark is older than the tombstone retention");
+            }
+            window = new Window(watermark, watermark, horizon);
+        }
+        
+        boolean vendor = role == User.UserRole.VENDOR;
+        String ownerField = vendor ? "vendorId" : "companyId";
+        Criteria owner = Criteria.where(ownerField).is(userId);
+        
+        SyncResponse response = new SyncResponse();
+        response.setTimesheets(toChanges(window,
+            changed(window, Timesheet.class, owner, Timesheet::getUpdatedAt, Timesheet::getId),
+            deleted(window, "timesheets", owner),
+            Timesheet::getCreatedAt, TimesheetResponse::fromEntity));
+        response.setInvoices(toChanges(window,
+            changed(window, Invoice.class, owner, Invoice::getUpdatedAt, Invoice::getId),
+            deleted(window, "invoices", owner),
+            Invoice::getCreatedAt, InvoiceResponse::fromEntity));
+        response.setWorkOrders(toChanges(window,
+            changed(window, WorkOrder.class, owner, WorkOrder::getUpdatedAt, WorkOrder::getId),
+            deleted(window, "workorders", owner),
+            WorkOrder::getCreatedAt, WorkOrderResponse::fromEntity));
+        response.setJobs(vendor ? openJobChanges(window) : toChanges(window,
+            changed(window, Job.class, owner, Job::getUpdatedAt, Job::getId),
+            deleted(window, "jobs", owner),
+            Job::getCreatedAt, JobResponse::fromEntity));
+        
+        if (window.truncated) {
+            response.setHasMore(true);
+            response.setCursor(encodeCursor(window));
+        } else {
+            response.setWatermark(window.watermark.toString());
+        }
+        return response;
+    }
+    
+    /**
+     * Whether a deletion after the watermark may already have been removed by the TTL index. Tombstones
+     * expire in deletion order, so a watermark at or after the oldest one still kept has lost nothing.
+     */
+    private boolean tombstonesExpiredSince(LocalDateTime watermark, LocalDateTime now) {
+        if (!watermark.isBefore(now.minusDays(retentionDays))) {
+            return false;
+        }
+        // expiresAt is deletedAt plus the retention, so its TTL index finds the oldest tombstone
+        Query oldest = new Query().with(Sort.by(Sort.Direction.ASC, "expiresAt")).limit(1);
+        oldest.fields().include("deletedAt");
+        Tombstone tombstone = mongoTemplate.findOne(oldest, Tombstone.class);
+        return tombstone == null || watermark.isBefore(tombstone.getDeletedAt());
+    }
+    
+    // Vendors see every open job; a job that stops being open is reported as deleted
+    private SyncResponse.Changes<JobResponse> openJobChanges(Window window) {
+        if (window.since == null) {
+            return toChanges(window,
+                changed(window, Job.class, Criteria.where("status").is(Job.JobStatus.OPEN), Job::getUpdatedAt, Job::getId),
+                List.of(), Job::getCreatedAt, JobResponse::fromEntity);
+        }
+        
+        List<Job> changed = changed(window, Job.class, new Criteria(), Job::getUpdatedAt, Job::getId);
+        List<Job> open = changed.stream()
+            .filter(job -> job.getStatus() == Job.JobStatus.OPEN)
+            .collect(Collectors.toList());
+        List<String> deleted = new ArrayList<>(deleted(window, "jobs", new Criteria()));
+        changed.stream()
+            .filter(job -> job.getStatus() != Job.JobStatus.OPEN)
+            .map(Job::getId)
+            .forEach(deleted::add);
+        return toChanges(window, open, deleted, Job::getCreatedAt, JobResponse::fromEntity);
+    }
+    
+    private List<String> deleted(Window window, String collection, Criteria scope) {
+        if (window.since == null) {
+            return List.of();
+        }
+        Criteria tombstones = Criteria.where("collectionName").is(collection).andOperator(scope);
+        return changed(window, Tombstone.class, tombstones, "deletedAt", Tombstone::getDeletedAt, Tombstone::getId)
+            .stream()
+            .map(Tombstone::getDocumentId)
+            .collect(Collectors.toList());
+    }
+    
+    private <T> List<T> changed(Window window, Class<T> type, Criteria scope,
+                                Function<T, LocalDateTime> updatedAt, Function<T, String> id) {
+        return changed(window, type, scope, "updatedAt", updatedAt, id);
+    }
+    
+    /**
+     * Up to sync.max-changes documents in the scope stamped within the window, oldest first. When
+     * there are more, the window's watermark is moved back to just after the last one returned.
+     */
+    private <T> List<T> changed(Window window, Class<T> type, Criteria scope, String timeField,
+                                Function<T, LocalDateTime> time, Function<T, String> id) {
+        Criteria range = Criteria.where(timeField).lt(window.horizon);
+        if (window.since != null) {
+            range = range.gte(window.since);
+        }
+        Query query = Query.query(new Criteria().andOperator(scope, range))
+            .with(Sort.by(Sort.Direction.ASC, timeField, "_id"))
+            .limit(maxChanges + 1);
+        List<T> results = mongoTemplate.find(query, type);
+        if (results.size() <= maxChanges) {
+            return results;
+        }
+        
+        // Bulk transitions stamp many documents with the same time, so finish the last millisecond
+        // before moving the watermark past it
+        List<T> page = new ArrayList<>(results.subList(0, maxChanges));
+        T last = page.get(maxChanges - 1);
+        LocalDateTime lastTime = time.apply(last);
+        Query rest = Query.query(new Criteria().andOperator(scope,
+                Criteria.where(timeField).is(lastTime),
+                Criteria.where("_id").gt(id.apply(last))))
+            .with(Sort.by(Sort.Direction.ASC, "_id"));
+        page.addAll(mongoTemplate.find(rest, type));
+        window.truncateAt(lastTime.plus(1, ChronoUnit.MILLIS));
+        return page;
+    }
+    
+    private static <T, R> SyncResponse.Changes<R> toChanges(Window window, List<T> changed, List<String> deleted,
+                                                            Function<T, LocalDateTime> createdAt, Function<T, R> mapper) {
+        List<R> created = new ArrayList<>();
+        List<R> updated = new ArrayList<>();
+        for (T document : changed) {
+            LocalDateTime createdTime = createdAt.apply(document);
+            boolean isNew = window.origin == null || (createdTime != null && !createdTime.isBefore(window.origin));
+            (isNew ? created : updated).add(mapper.apply(document));
+        }
+        return new SyncResponse.Changes<>(created, updated, deleted);
+    }
+    
+    private static LocalDateTime parseWatermark(String since) {
+        if (!StringUtils.hasText(since)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(since);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid watermark: " + since, e);
+        }
+    }
+    
+    // The cursor carries where to resume and the watermark the sync started from (empty for a full sync)
+    private static String encodeCursor(Window window) {
+        String raw = window.watermark + "|" + (window.origin != null ? window.origin : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Window decodeCursor(String cursor, LocalDateTime horizon) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String origin = raw.substring(separator + 1);
+            return new Window(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                origin.isEmpty() ? null : LocalDateTime.parse(origin),
+                horizon);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    private static class Window {
+        private final LocalDateTime since; // lower bound of this read; null on the first page of a full sync
+        private final LocalDateTime origin; // watermark the sync started from; null for a full sync
+        private final LocalDateTime horizon; // exclusive; only settled writes are read
+        private LocalDateTime watermark;
+        private boolean truncated;
+        
+        Window(LocalDateTime since, LocalDateTime origin, LocalDateTime horizon) {
+            this.since = since;
+            this.origin = origin;
+            this.horizon = horizon;
+            // A client that synced moments ago must not be moved back to an earlier watermark
+            this.watermark = since != null && since.isAfter(horizon) ? since : horizon;
+        }
+        
+        void truncateAt(LocalDateTime next) {
+            if (next.isBefore(watermark)) {
+                watermark = next;
+            }
+            truncated = true;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.hourglass.jobclocksync.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hourglass.jobclocksync.dto.TimesheetImportReport;
+import com.hourglass.jobclocksync.dto.TimesheetRequest;
+import com.hourglass.jobclocksync.model.Timesheet;
+import com.hourglass.jobclocksync.util.Csv;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk timesheet import from CSV or NDJSON. The body is read one line at a time, each timesheet is
+ * validated and converted as soon as it is complete, and valid timesheets are written with
+ * insertMany in batches of {@value #BATCH_SIZE}, so memory does not grow with the upload size.
+ *
+ * <p>NDJSON: one {@link TimesheetRequest} per line. CSV: a header row, then one row per entry with
+ * columns {@code vendorId, workOrderId, weekStartDate, weekEndDate, date, hours, description, notes};
+ * consecutive rows with the same vendor, work order and week form one timesheet.
+ */
+@Service
+public class TimesheetImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TimesheetImportService.class);
+    
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+    
+    private static final List<String> REQUIRED_COLUMNS =
+        List.of("workOrderId", "weekStartDate", "weekEndDate", "date", "hours", "description");
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    @Autowired
+    private TimesheetService timesheetService;
+    
+    @Autowired
+    private WorkOrderService workOrderService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    /**
+     * @param vendorId the vendor for every timesheet, or null to take it from each row (company uploads)
+     * @param companyId the company for every timesheet, or null to resolve it from each work order (vendor uploads)
+     * @throws IllegalArgumentException if the CSV header is missing required columns
+     */
+    public TimesheetImportReport importTimesheets(BufferedReader reader, Format format,
+                                                  String vendorId, String companyId) throws IOException {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun(vendorId, companyId);
+        
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+        
+        TimesheetImportReport report = run.report;
+        long elapsedNanos = System.nanoTime() - started;
+        report.setDurationMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0.0 : report.getRowsRead() * 1_000_000_000.0 / elapsedNanos);
+        log.info("Timesheet import: {} rows, {} imported, {} failed in {} ms ({} rows/s)",
+            report.getRowsRead(), report.getImported(), report.getFailed(), report.getDurationMs(),
+            Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+    
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.rowRead();
+            
+            TimesheetRequest request;
+            try {
+                request = objectMapper.readValue(line, TimesheetRequest.class);
+            } catch (JsonProcessingException e) {
+                // Jackson's message names internal classes, so report only where the line broke
+                run.error(lineNumber, e.getLocation() != null
+                    ? "Malformed JSON at column " + e.getLocation().getColumnNr()
+                    : "Malformed JSON");
+                continue;
+            }
+            run.accept(lineNumber, request, 1);
+        }
+    }
+    
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = Csv.parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        
+        long lineNumber = 1;
+        long groupLine = 0;
+        String groupKey = null;
+        TimesheetRequest group = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.rowRead();
+            
+            List<String> fields;
+            TimesheetRequest.TimesheetEntryRequest entry;
+            try {
+                fields = Csv.parseLine(line);
+                entry = new TimesheetRequest.TimesheetEntryRequest();
+                entry.setDate(field(fields, columns, "date"));
+                entry.setWorkOrderId(field(fields, columns, "workOrderId"));
+                entry.setDescription(field(fields, columns, "description"));
+                String hours = field(fields, columns, "hours");
+                entry.setHours(hours == null ? null : Double.valueOf(hours));
+            } catch (IllegalArgumentException e) {
+                run.error(lineNumber, e instanceof NumberFormatException ? "Invalid hours" : e.getMessage());
+                continue;
+            }
+            
+            String vendor = field(fields, columns, "vendorId");
+            String workOrderId = field(fields, columns, "workOrderId");
+            String weekStart = field(fields, columns, "weekStartDate");
+            String weekEnd = field(fields, columns, "weekEndDate");
+            String key = vendor + "|" + workOrderId + "|" + weekStart + "|" + weekEnd;
+            
+            if (!key.equals(groupKey)) {
+                if (group != null) {
+                    run.accept(groupLine, group, group.getEntries().size());
+                }
+                group = new TimesheetRequest();
+                group.setVendorId(vendor);
+                group.setWorkOrderId(workOrderId);
+                group.setWeekStartDate(weekStart);
+                group.setWeekEndDate(weekEnd);
+                group.setNotes(field(fields, columns, "notes"));
+                group.setEntries(new ArrayList<>());
+                groupKey = key;
+                groupLine = lineNumber;
+            }
+            group.getEntries().add(entry);
+        }
+        if (group != null) {
+            run.accept(groupLine, group, group.getEntries().size());
+        }
+    }
+    
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private class ImportRun {
+        private final String vendorId;
+        private final String companyId;
+        private final TimesheetImportReport report = new TimesheetImportReport();
+        // Uploads repeat the same few dates and work orders on every row
+        private final Map<String, LocalDate> dates = new HashMap<>();
+        private final Map<String, String> companyByWorkOrder = new HashMap<>();
+        private final List<Timesheet> pending = new ArrayList<>(BATCH_SIZE);
+        private long pendingRows;
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        
+        ImportRun(String vendorId, String companyId) {
+            this.vendorId = vendorId;
+            this.companyId = companyId;
+        }
+        
+        void rowRead() {
+            rowsRead++;
+        }
+        
+        /**
+         * @param rows the input rows this timesheet was built from, so imported and failed both count rows
+         */
+        void accept(long line, TimesheetRequest request, int rows) {
+            Set<ConstraintViolation<TimesheetRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                error(line, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")), rows);
+                return;
+            }
+            
+            String vendor = vendorId != null ? vendorId : request.getVendorId();
+            if (!StringUtils.hasText(vendor)) {
+                error(line, "Vendor ID is required", rows);
+                return;
+            }
+            String company = companyId != null ? companyId : resolveCompany(request.getWorkOrderId());
+            if (company == null) {
+                error(line, "Work order not found", rows);
+                return;
+            }
+            
+            try {
+                pending.add(timesheetService.toEntity(request, vendor, company, this::date));
+            } catch (DateTimeParseException e) {
+                error(line, "Invalid date: " + e.getParsedString(), rows);
+                return;
+            } catch (RuntimeException e) {
+                // Validation covers the known fields; anything else is still this row's problem only
+                log.debug("Timesheet import rejected line {}", line, e);
+                error(line, "Invalid timesheet", rows);
+                return;
+            }
+            pendingRows += rows;
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+        
+        void error(long line, String message) {
+            error(line, message, 1);
+        }
+        
+        void error(long line, String message, int rows) {
+            failed += rows;
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new TimesheetImportReport.RowError(line, message));
+            }
+        }
+        
+        void flush() {
+            if (!pending.isEmpty()) {
+                mongoTemplate.insert(pending, Timesheet.class);
+                imported += pendingRows;
+                pending.clear();
+                pendingRows = 0;
+            }
+            report.setRowsRead(rowsRead);
+            report.setImported(imported);
+            report.setFailed(failed);
+        }
+        
+        private LocalDate date(String value) {
+            return dates.computeIfAbsent(value, LocalDate::parse);
+        }
+        
+        private String resolveCompany(String workOrderId) {
+            String company = companyByWorkOrder.get(workOrderId);
+            if (company == null && !companyByWorkOrder.containsKey(workOrderId)) {
+                try {
+                    company = workOrderService.getCompanyIdByWorkOrderId(workOrderId);
+                } catch (RuntimeException e) {
+                    company = null;
+                }
+                companyByWorkOrder.put(workOrderId, company);
+            }
+            return company;
+        }
+    }
+}
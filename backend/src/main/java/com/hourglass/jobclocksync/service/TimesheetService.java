@@ -1,17 +1,36 @@
 package com.hourglass.jobclocksync.service;
 
+import com.hourglass.jobclocksync.dto.BulkActionResponse;
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.TimesheetRequest;
 import com.hourglass.jobclocksync.dto.TimesheetResponse;
 import com.hourglass.jobclocksync.model.Timesheet;
+import com.hourglass.jobclocksync.repository.CollectionVersions;
+import com.hourglass.jobclocksync.repository.KeysetPager;
+import com.hourglass.jobclocksync.repository.ReactiveLists;
+import com.hourglass.jobclocksync.repository.StatusTransitions;
 import com.hourglass.jobclocksync.repository.TimesheetRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TimesheetService {
@@ -19,22 +38,45 @@ public class TimesheetService {
     @Autowired
     private TimesheetRepository timesheetRepository;
     
+    private static final int EXPORT_BATCH_SIZE = 500;
+    
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private ReactiveLists reactiveLists;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private StatusTransitions statusTransitions;
+    
     public TimesheetResponse createTimesheet(TimesheetRequest request, String vendorId, String companyId) {
+        Timesheet saved = timesheetRepository.save(toEntity(request, vendorId, companyId, LocalDate::parse));
+        return TimesheetResponse.fromEntity(saved);
+    }
+    
+    Timesheet toEntity(TimesheetRequest request, String vendorId, String companyId,
+                       Function<String, LocalDate> parseDate) {
         Timesheet timesheet = new Timesheet();
         timesheet.setId(UUID.randomUUID().toString());
         timesheet.setVendorId(vendorId);
         timesheet.setCompanyId(companyId);
         timesheet.setWorkOrderId(request.getWorkOrderId());
         timesheet.setStatus(Timesheet.TimesheetStatus.DRAFT);
-        timesheet.setWeekStartDate(LocalDate.parse(request.getWeekStartDate()));
-        timesheet.setWeekEndDate(LocalDate.parse(request.getWeekEndDate()));
+        timesheet.setWeekStartDate(parseDate.apply(request.getWeekStartDate()));
+        timesheet.setWeekEndDate(parseDate.apply(request.getWeekEndDate()));
         timesheet.setNotes(request.getNotes());
         
         // Convert request entries to model entries
         List<Timesheet.TimesheetEntry> entries = request.getEntries().stream()
             .map(reqEntry -> {
                 Timesheet.TimesheetEntry entry = new Timesheet.TimesheetEntry();
-                entry.setDate(LocalDate.parse(reqEntry.getDate()));
+                entry.setDate(parseDate.apply(reqEntry.getDate()));
                 entry.setHours(reqEntry.getHours());
                 entry.setDescription(reqEntry.getDescription());
                 entry.setWorkOrderId(reqEntry.getWorkOrderId());
@@ -52,56 +94,106 @@ public class TimesheetService {
         
         timesheet.setCreatedAt(LocalDateTime.now());
         timesheet.setUpdatedAt(LocalDateTime.now());
-        
-        Timesheet saved = timesheetRepository.save(timesheet);
-        return TimesheetResponse.fromEntity(saved);
+        return timesheet;
     }
     
-    public List<TimesheetResponse> getTimesheetsByVendor(String vendorId) {
-        return timesheetRepository.findByVendorId(vendorId).stream()
-            .map(TimesheetResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<TimesheetResponse> getTimesheetsByVendor(String vendorId, ListQuery query) {
+        return findPage(Criteria.where("vendorId").is(vendorId), query);
     }
     
-    public List<TimesheetResponse> getTimesheetsByCompany(String companyId) {
-        return timesheetRepository.findByCompanyId(companyId).stream()
-            .map(TimesheetResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<TimesheetResponse> getTimesheetsByCompany(String companyId, ListQuery query) {
+        return findPage(Criteria.where("companyId").is(companyId), query);
     }
     
-    public TimesheetResponse submitTimesheet(String id) {
-        Timesheet timesheet = timesheetRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Timesheet not found"));
-        
-        timesheet.setStatus(Timesheet.TimesheetStatus.SUBMITTED);
-        timesheet.setSubmittedDate(LocalDateTime.now());
-        timesheet.setUpdatedAt(LocalDateTime.now());
-        
-        Timesheet saved = timesheetRepository.save(timesheet);
-        return TimesheetResponse.fromEntity(saved);
+    public String getTimesheetsVersionByVendor(String vendorId) {
+        return collectionVersions.version(Timesheet.class, Criteria.where("vendorId").is(vendorId));
     }
     
-    public TimesheetResponse approveTimesheet(String id) {
-        Timesheet timesheet = timesheetRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Timesheet not found"));
-        
-        timesheet.setStatus(Timesheet.TimesheetStatus.APPROVED);
-        timesheet.setApprovedDate(LocalDateTime.now());
-        timesheet.setUpdatedAt(LocalDateTime.now());
-        
-        Timesheet saved = timesheetRepository.save(timesheet);
-        return TimesheetResponse.fromEntity(saved);
+    public String getTimesheetsVersionByCompany(String companyId) {
+        return collectionVersions.version(Timesheet.class, Criteria.where("companyId").is(companyId));
     }
     
-    public TimesheetResponse rejectTimesheet(String id) {
-        Timesheet timesheet = timesheetRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Timesheet not found"));
-        
-        timesheet.setStatus(Timesheet.TimesheetStatus.REJECTED);
-        timesheet.setUpdatedAt(LocalDateTime.now());
+    public Flux<TimesheetResponse> streamTimesheetsByVendor(String vendorId, ListQuery query) {
+        return stream(Criteria.where("vendorId").is(vendorId), query);
+    }
+    
+    public Flux<TimesheetResponse> streamTimesheetsByCompany(String companyId, ListQuery query) {
+        return stream(Criteria.where("companyId").is(companyId), query);
+    }
+    
+    public Stream<TimesheetResponse> exportTimesheetsByVendor(String vendorId, ListQuery query) {
+        return export(Criteria.where("vendorId").is(vendorId), query);
+    }
+    
+    public Stream<TimesheetResponse> exportTimesheetsByCompany(String companyId, ListQuery query) {
+        return export(Criteria.where("companyId").is(companyId), query);
+    }
+    
+    // Oldest first straight from a MongoDB cursor; the caller must close the stream
+    private Stream<TimesheetResponse> export(Criteria scope, ListQuery query) {
+        List<Criteria> clauses = new ArrayList<>();
+        clauses.add(withStatus(scope, query));
+        Criteria range = KeysetPager.createdBetween(query);
+        if (range != null) {
+            clauses.add(range);
+        }
         
-        Timesheet saved = timesheetRepository.save(timesheet);
-        return TimesheetResponse.fromEntity(saved);
+        Query exportQuery = Query.query(new Criteria().andOperator(clauses.toArray(new Criteria[0])))
+            .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+            .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(exportQuery, Timesheet.class).map(TimesheetResponse::fromEntity);
+    }
+    
+    private Flux<TimesheetResponse> stream(Criteria scope, ListQuery query) {
+        return reactiveLists.stream(Timesheet.class, withStatus(scope, query), query).map(TimesheetResponse::fromEntity);
+    }
+    
+    private CursorPage<TimesheetResponse> findPage(Criteria scope, ListQuery query) {
+        return keysetPager.page(Timesheet.class, withStatus(scope, query), query, Timesheet::getCreatedAt, Timesheet::getId)
+            .map(TimesheetResponse::fromEntity);
+    }
+    
+    private static Criteria withStatus(Criteria scope, ListQuery query) {
+        if (StringUtils.hasText(query.getStatus())) {
+            scope = scope.and("status").is(Timesheet.TimesheetStatus.valueOf(query.getStatus().toUpperCase()));
+        }
+        return scope;
+    }
+    
+    public TimesheetResponse submitTimesheet(String id, Long expectedVersion) {
+        Update update = Update.update("status", Timesheet.TimesheetStatus.SUBMITTED)
+            .set("submittedDate", LocalDateTime.now());
+        return transition(id, EnumSet.of(Timesheet.TimesheetStatus.DRAFT, Timesheet.TimesheetStatus.REJECTED),
+            update, expectedVersion);
+    }
+    
+    public TimesheetResponse approveTimesheet(String id, Long expectedVersion) {
+        Update update = Update.update("status", Timesheet.TimesheetStatus.APPROVED)
+            .set("approvedDate", LocalDateTime.now());
+        return transition(id, EnumSet.of(Timesheet.TimesheetStatus.SUBMITTED), update, expectedVersion);
+    }
+    
+    public TimesheetResponse rejectTimesheet(String id, Long expectedVersion) {
+        Update update = Update.update("status", Timesheet.TimesheetStatus.REJECTED);
+        return transition(id, EnumSet.of(Timesheet.TimesheetStatus.SUBMITTED), update, expectedVersion);
+    }
+    
+    public BulkActionResponse bulkApprove(List<String> ids, String companyId) {
+        return statusTransitions.applyAll(Timesheet.class, ids, Criteria.where("companyId").is(companyId),
+            EnumSet.of(Timesheet.TimesheetStatus.SUBMITTED), Timesheet.TimesheetStatus.APPROVED,
+            Update.update("approvedDate", LocalDateTime.now()));
+    }
+    
+    public BulkActionResponse bulkReject(List<String> ids, String companyId) {
+        return statusTransitions.applyAll(Timesheet.class, ids, Criteria.where("companyId").is(companyId),
+            EnumSet.of(Timesheet.TimesheetStatus.SUBMITTED), Timesheet.TimesheetStatus.REJECTED, new Update());
+    }
+    
+    private TimesheetResponse transition(String id, Set<Timesheet.TimesheetStatus> from, Update update,
+                                         Long expectedVersion) {
+        Timesheet updated = statusTransitions.apply(Timesheet.class, id, from, update, expectedVersion, true,
+            "Timesheet not found");
+        return TimesheetResponse.fromEntity(updated);
     }
 }
 
@@ -0,0 +1,53 @@
+package com.hourglass.jobclocksync.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, TTL-evicted cache of User documents keyed by email.
+ * Entries are invalidated by UserService whenever a user is updated, toggled or deleted.
+ */
+@Component
+public class UserCache {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${user-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    private Cache<String, User> users;
+    
+    @PostConstruct
+    void init() {
+        users = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+    
+    /**
+     * Returns the user for the given email, loading it from MongoDB on a miss.
+     * Returns null if no such user exists (missing users are not cached).
+     */
+    public User get(String email) {
+        return users.get(email, key -> userRepository.findByEmail(key).orElse(null));
+    }
+    
+    public void invalidate(String email) {
+        if (email != null) {
+            users.invalidate(email);
+        }
+    }
+}
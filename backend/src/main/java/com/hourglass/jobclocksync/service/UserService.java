@@ -1,16 +1,19 @@
 package com.hourglass.jobclocksync.service;
 
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.UserRequest;
 import com.hourglass.jobclocksync.dto.UserResponse;
 import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.repository.KeysetPager;
 import com.hourglass.jobclocksync.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -21,10 +24,17 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-            .map(UserResponse::fromEntity)
-            .collect(Collectors.toList());
+    @Autowired
+    private UserCache userCache;
+    
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private AuthService authService;
+    
+    public CursorPage<UserResponse> getAllUsers(ListQuery query) {
+        return findPage(new Criteria(), query);
     }
     
     public UserResponse getUserById(String id) {
@@ -55,27 +65,35 @@ public class UserService {
     public UserResponse updateUser(String id, UserRequest request) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
+        User.UserRole previousRole = user.getRole();
         
         user.setName(request.getName());
         user.setRole(User.UserRole.valueOf(request.getRole().toUpperCase()));
         user.setActive(request.getActive() != null ? request.getActive() : user.isActive());
         
         // Only update password if provided
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
+        boolean passwordChanged = request.getPassword() != null && !request.getPassword().isEmpty();
+        if (passwordChanged) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
         }
         
         user.setUpdatedAt(LocalDateTime.now());
         
         user = userRepository.save(user);
+        userCache.invalidate(user.getEmail());
+        // Tokens carry the role, so existing sessions end on role, password or activation changes
+        if (!user.isActive() || passwordChanged || user.getRole() != previousRole) {
+            authService.revokeSessions(user.getId());
+        }
         return UserResponse.fromEntity(user);
     }
     
     public void deleteUser(String id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found");
-        }
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.deleteById(id);
+        userCache.invalidate(user.getEmail());
+        authService.revokeSessions(id);
     }
     
     public UserResponse toggleUserStatus(String id) {
@@ -86,15 +104,33 @@ public class UserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         user = userRepository.save(user);
+        userCache.invalidate(user.getEmail());
+        if (!user.isActive()) {
+            authService.revokeSessions(user.getId());
+        }
         return UserResponse.fromEntity(user);
     }
     
-    public List<UserResponse> getUsersByRole(String role) {
+    public CursorPage<UserResponse> getUsersByRole(String role, ListQuery query) {
         User.UserRole userRole = User.UserRole.valueOf(role.toUpperCase());
-        return userRepository.findAll().stream()
-            .filter(user -> user.getRole() == userRole)
-            .map(UserResponse::fromEntity)
-            .collect(Collectors.toList());
+        return findPage(Criteria.where("role").is(userRole), query);
+    }
+    
+    public CursorPage<UserResponse> getActiveVendors(ListQuery query) {
+        return findPage(Criteria.where("role").is(User.UserRole.VENDOR).and("active").is(true), query);
+    }
+    
+    /**
+     * Streams every active vendor from a MongoDB cursor. The caller must close the stream.
+     */
+    public Stream<UserResponse> streamActiveVendors() {
+        return userRepository.findByRoleAndActive(User.UserRole.VENDOR, true)
+            .map(UserResponse::fromEntity);
+    }
+    
+    private CursorPage<UserResponse> findPage(Criteria scope, ListQuery query) {
+        return keysetPager.page(User.class, scope, query, User::getCreatedAt, User::getId, "password")
+            .map(UserResponse::fromEntity);
     }
 }
 
@@ -1,16 +1,26 @@
 package com.hourglass.jobclocksync.service;
 
+import com.hourglass.jobclocksync.dto.CursorPage;
+import com.hourglass.jobclocksync.dto.ListQuery;
 import com.hourglass.jobclocksync.dto.WorkOrderRequest;
 import com.hourglass.jobclocksync.dto.WorkOrderResponse;
 import com.hourglass.jobclocksync.model.WorkOrder;
+import com.hourglass.jobclocksync.repository.CollectionVersions;
+import com.hourglass.jobclocksync.repository.KeysetPager;
+import com.hourglass.jobclocksync.repository.ReactiveLists;
+import com.hourglass.jobclocksync.repository.StatusTransitions;
 import com.hourglass.jobclocksync.repository.WorkOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class WorkOrderService {
@@ -18,6 +28,27 @@ public class WorkOrderService {
     @Autowired
     private WorkOrderRepository workOrderRepository;
     
+    private static final Set<WorkOrder.WorkOrderStatus> OPEN_STATUSES = EnumSet.complementOf(
+        EnumSet.of(WorkOrder.WorkOrderStatus.COMPLETED, WorkOrder.WorkOrderStatus.CANCELLED));
+    
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private ReactiveLists reactiveLists;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
+    @Autowired
+    private StatusTransitions statusTransitions;
+    
+    @Autowired
+    private CounterService counterService;
+    
+    @Autowired
+    private CompanyStatsService companyStatsService;
+    
     public WorkOrderResponse createWorkOrder(WorkOrderRequest request, String companyId) {
         WorkOrder workOrder = new WorkOrder();
         workOrder.setId(UUID.randomUUID().toString());
@@ -32,51 +63,105 @@ public class WorkOrderService {
         workOrder.setUpdatedAt(LocalDateTime.now());
         
         WorkOrder saved = workOrderRepository.save(workOrder);
+        companyStatsService.vendorAssigned(companyId, saved.getVendorId());
         return WorkOrderResponse.fromEntity(saved);
     }
     
-    public List<WorkOrderResponse> getWorkOrdersByCompany(String companyId) {
-        return workOrderRepository.findByCompanyId(companyId).stream()
-            .map(WorkOrderResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<WorkOrderResponse> getWorkOrdersByCompany(String companyId, ListQuery query) {
+        return findPage(Criteria.where("companyId").is(companyId), query);
     }
     
-    public List<WorkOrderResponse> getWorkOrdersByVendor(String vendorId) {
-        return workOrderRepository.findByVendorId(vendorId).stream()
-            .map(WorkOrderResponse::fromEntity)
-            .collect(Collectors.toList());
+    public CursorPage<WorkOrderResponse> getWorkOrdersByVendor(String vendorId, ListQuery query) {
+        return findPage(Criteria.where("vendorId").is(vendorId), query);
     }
     
-    public WorkOrderResponse updateWorkOrderStatus(String id, WorkOrder.WorkOrderStatus status) {
-        WorkOrder workOrder = workOrderRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Work order not found"));
-        
-        workOrder.setStatus(status);
-        workOrder.setUpdatedAt(LocalDateTime.now());
+    public String getWorkOrdersVersionByCompany(String companyId) {
+        return collectionVersions.version(WorkOrder.class, Criteria.where("companyId").is(companyId));
+    }
+    
+    public String getWorkOrdersVersionByVendor(String vendorId) {
+        return collectionVersions.version(WorkOrder.class, Criteria.where("vendorId").is(vendorId));
+    }
+    
+    public Flux<WorkOrderResponse> streamWorkOrdersByCompany(String companyId, ListQuery query) {
+        return stream(Criteria.where("companyId").is(companyId), query);
+    }
+    
+    public Flux<WorkOrderResponse> streamWorkOrdersByVendor(String vendorId, ListQuery query) {
+        return stream(Criteria.where("vendorId").is(vendorId), query);
+    }
+    
+    private Flux<WorkOrderResponse> stream(Criteria scope, ListQuery query) {
+        return reactiveLists.stream(WorkOrder.class, withStatus(scope, query), query).map(WorkOrderResponse::fromEntity);
+    }
+    
+    private CursorPage<WorkOrderResponse> findPage(Criteria scope, ListQuery query) {
+        return keysetPager.page(WorkOrder.class, withStatus(scope, query), query, WorkOrder::getCreatedAt, WorkOrder::getId)
+            .map(WorkOrderResponse::fromEntity);
+    }
+    
+    private static Criteria withStatus(Criteria scope, ListQuery query) {
+        if (StringUtils.hasText(query.getStatus())) {
+            scope = scope.and("status").is(WorkOrder.WorkOrderStatus.valueOf(query.getStatus().toUpperCase()));
+        }
+        return scope;
+    }
+    
+    public WorkOrderResponse updateWorkOrderStatus(String id, WorkOrder.WorkOrderStatus status, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = Update.update("status", status).set("updatedAt", now);
+        if (status == WorkOrder.WorkOrderStatus.ASSIGNED) {
+            // $min only fills in a missing assignedDate; an earlier assignment date is kept
+            update.min("assignedDate", now);
+        }
+        if (status == WorkOrder.WorkOrderStatus.COMPLETED) {
+            update.set("completedDate", now);
+        }
         
+        WorkOrder workOrder = statusTransitions.apply(WorkOrder.class, id, OPEN_STATUSES, update, expectedVersion,
+            false, "Work order not found");
+        WorkOrder.WorkOrderStatus previousStatus = workOrder.getStatus();
+        applyTransition(workOrder, status, now);
         if (status == WorkOrder.WorkOrderStatus.ASSIGNED && workOrder.getAssignedDate() == null) {
-            workOrder.setAssignedDate(LocalDateTime.now());
+            workOrder.setAssignedDate(now);
         }
-        
         if (status == WorkOrder.WorkOrderStatus.COMPLETED) {
-            workOrder.setCompletedDate(LocalDateTime.now());
+            workOrder.setCompletedDate(now);
         }
         
-        WorkOrder saved = workOrderRepository.save(workOrder);
-        return WorkOrderResponse.fromEntity(saved);
+        companyStatsService.workOrderStatusChanged(workOrder.getCompanyId(), previousStatus, status);
+        return WorkOrderResponse.fromEntity(workOrder);
     }
     
-    public WorkOrderResponse assignWorkOrder(String id, String vendorId) {
-        WorkOrder workOrder = workOrderRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Work order not found"));
+    public WorkOrderResponse assignWorkOrder(String id, String vendorId, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = Update.update("status", WorkOrder.WorkOrderStatus.ASSIGNED)
+            .set("vendorId", vendorId)
+            .set("assignedDate", now)
+            .set("updatedAt", now);
         
+        WorkOrder workOrder = statusTransitions.apply(WorkOrder.class, id, OPEN_STATUSES, update, expectedVersion,
+            false, "Work order not found");
+        WorkOrder.WorkOrderStatus previousStatus = workOrder.getStatus();
+        String previousVendorId = workOrder.getVendorId();
+        applyTransition(workOrder, WorkOrder.WorkOrderStatus.ASSIGNED, now);
         workOrder.setVendorId(vendorId);
-        workOrder.setStatus(WorkOrder.WorkOrderStatus.ASSIGNED);
-        workOrder.setAssignedDate(LocalDateTime.now());
-        workOrder.setUpdatedAt(LocalDateTime.now());
+        workOrder.setAssignedDate(now);
         
-        WorkOrder saved = workOrderRepository.save(workOrder);
-        return WorkOrderResponse.fromEntity(saved);
+        companyStatsService.workOrderStatusChanged(workOrder.getCompanyId(), previousStatus, workOrder.getStatus());
+        companyStatsService.vendorAssigned(workOrder.getCompanyId(), vendorId);
+        if (previousVendorId != null && !previousVendorId.equals(vendorId)) {
+            companyStatsService.vendorUnassigned(workOrder.getCompanyId(), previousVendorId);
+        }
+        return WorkOrderResponse.fromEntity(workOrder);
+    }
+    
+    // Work orders are transitioned with returnNew=false so the previous status can feed the company
+    // stats; the pre-image is brought up to date in memory instead of being read again
+    private static void applyTransition(WorkOrder workOrder, WorkOrder.WorkOrderStatus status, LocalDateTime now) {
+        workOrder.setStatus(status);
+        workOrder.setUpdatedAt(now);
+        workOrder.setVersion(workOrder.getVersion() == null ? 1L : workOrder.getVersion() + 1);
     }
     
     public String getCompanyIdByWorkOrderId(String workOrderId) {
@@ -87,8 +172,11 @@ public class WorkOrderService {
     
     private String generateWorkOrderNumber() {
         int year = LocalDateTime.now().getYear();
-        long count = workOrderRepository.count();
-        return String.format("WO-%d-%03d", year, count + 1);
+        // Seeded from this year's highest number so numbers issued before the counter existed are never reused
+        String prefix = "WO-" + year + "-";
+        long sequence = counterService.next("WO-" + year,
+            () -> counterService.maxIssued(WorkOrder.class, "workOrderNumber", prefix));
+        return String.format("WO-%d-%03d", year, sequence);
     }
 }
 
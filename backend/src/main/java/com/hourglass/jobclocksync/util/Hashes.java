@@ -0,0 +1,28 @@
+package com.hourglass.jobclocksync.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Content hashes used as cache keys, stored token ids and ETags.
+ */
+public final class Hashes {
+    
+    private Hashes() {
+    }
+    
+    /**
+     * SHA-256 of the UTF-8 bytes of the value, Base64 encoded.
+     */
+    public static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
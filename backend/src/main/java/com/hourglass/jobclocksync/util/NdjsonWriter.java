@@ -0,0 +1,34 @@
+package com.hourglass.jobclocksync.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream as newline-delimited JSON, one element at a time, so memory use does not grow
+ * with the number of elements.
+ */
+public final class NdjsonWriter {
+    
+    private static final int FLUSH_EVERY = 100;
+    
+    private NdjsonWriter() {
+    }
+    
+    public static <T> long write(Stream<T> elements, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        long count = 0;
+        Iterator<T> iterator = elements.iterator();
+        while (iterator.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,92 @@
+package com.hourglass.jobclocksync.util;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Reduces MongoDB commands to their shape: the filter with every literal replaced by {@code ?},
+ * plus sort keys and aggregation stage names. Queries that differ only in their values share a shape.
+ */
+public final class QueryShapes {
+    
+    private QueryShapes() {
+    }
+    
+    /**
+     * @return the shape, or null for commands that are not queries (inserts, getMore, handshakes...)
+     */
+    public static String shape(String commandName, BsonDocument command) {
+        switch (commandName) {
+            case "find":
+                return "find " + filter(command.get("filter")) + sort(command.get("sort"));
+            case "count":
+                return "count " + filter(command.get("query"));
+            case "distinct":
+                return "distinct " + command.getString("key").getValue() + " " + filter(command.get("query"));
+            case "findAndModify":
+                return "findAndModify " + filter(command.get("query")) + sort(command.get("sort"));
+            case "update":
+                return "update " + filter(firstStatement(command, "updates").get("q"));
+            case "delete":
+                return "delete " + filter(firstStatement(command, "deletes").get("q"));
+            case "aggregate":
+                return "aggregate " + pipeline(command.getArray("pipeline", new BsonArray()));
+            default:
+                return null;
+        }
+    }
+    
+    private static BsonDocument firstStatement(BsonDocument command, String field) {
+        BsonArray statements = command.getArray(field, new BsonArray());
+        return statements.isEmpty() ? new BsonDocument() : statements.get(0).asDocument();
+    }
+    
+    private static String pipeline(BsonArray stages) {
+        StringJoiner shape = new StringJoiner(", ", "[", "]");
+        for (BsonValue stage : stages) {
+            for (Map.Entry<String, BsonValue> operator : stage.asDocument().entrySet()) {
+                switch (operator.getKey()) {
+                    case "$match" -> shape.add("$match " + filter(operator.getValue()));
+                    case "$sort" -> shape.add("$sort " + operator.getValue().asDocument().toJson());
+                    default -> shape.add(operator.getKey());
+                }
+            }
+        }
+        return shape.toString();
+    }
+    
+    private static String sort(BsonValue sort) {
+        return sort != null && sort.isDocument() && !sort.asDocument().isEmpty() ? " sort " + sort.asDocument().toJson() : "";
+    }
+    
+    private static String filter(BsonValue filter) {
+        if (filter == null || !filter.isDocument()) {
+            return "{}";
+        }
+        StringJoiner shape = new StringJoiner(", ", "{", "}");
+        for (Map.Entry<String, BsonValue> field : filter.asDocument().entrySet()) {
+            shape.add(field.getKey() + ": " + value(field.getKey(), field.getValue()));
+        }
+        return shape.toString();
+    }
+    
+    private static String value(String key, BsonValue value) {
+        if (key.equals("$and") || key.equals("$or") || key.equals("$nor")) {
+            StringJoiner clauses = new StringJoiner(", ", "[", "]");
+            for (BsonValue clause : value.asArray()) {
+                clauses.add(filter(clause));
+            }
+            return clauses.toString();
+        }
+        // Operator documents ({$gte: ..., $in: ...}, $elemMatch) keep their operators; everything else is a literal
+        if (value.isDocument() && !value.asDocument().isEmpty()
+                && value.asDocument().getFirstKey().startsWith("$")) {
+            return filter(value);
+        }
+        return "?";
+    }
+}
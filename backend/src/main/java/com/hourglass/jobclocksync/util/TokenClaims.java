@@ -0,0 +1,25 @@
+package com.hourglass.jobclocksync.util;
+
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Typed view of a verified access token, produced by a single parse in {@link JwtUtil#parseToken}.
+ */
+@Value
+public class TokenClaims {
+    // jti; null for tokens issued before token ids were added
+    String tokenId;
+    // sid: the login session, shared by every token issued through its refresh-token chain; null for older tokens
+    String sessionId;
+    String email;
+    String userId;
+    String role;
+    Date issuedAt;
+    Date expiration;
+    
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,13 @@
+#!/bin/sh
+# Builds the backend and the benchmarks, runs every benchmark (or those matching $1) and writes
+# the JMH results as JSON to results/<backend version>-<git revision>.json.
+set -e
+cd "$(dirname "$0")"
+
+(cd ../backend && mvn -q -B install -DskipTests)
+mvn -q -B package
+
+VERSION=$(sed -n 's:.*<backend.version>\(.*\)</backend.version>.*:\1:p' pom.xml)
+REVISION=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/${VERSION}-${REVISION}.json" "$@"
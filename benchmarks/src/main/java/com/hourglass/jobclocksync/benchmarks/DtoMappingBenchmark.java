@@ -0,0 +1,57 @@
+package com.hourglass.jobclocksync.benchmarks;
+
+import com.hourglass.jobclocksync.dto.InvoiceResponse;
+import com.hourglass.jobclocksync.dto.TimesheetResponse;
+import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Timesheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping, run for every element of every list, export and stream response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DtoMappingBenchmark {
+    
+    // A working week with one entry per day, and a month of daily entries
+    @Param({"7", "31"})
+    private int timesheetEntries;
+    
+    @Param({"10", "50"})
+    private int invoiceItems;
+    
+    private Timesheet timesheet;
+    private Invoice invoice;
+    
+    @Setup
+    public void setUp() {
+        timesheet = Fixtures.timesheet(timesheetEntries);
+        invoice = Fixtures.invoice(invoiceItems);
+    }
+    
+    @Benchmark
+    public TimesheetResponse timesheetFromEntity() {
+        return TimesheetResponse.fromEntity(timesheet);
+    }
+    
+    @Benchmark
+    public InvoiceResponse invoiceFromEntity() {
+        return InvoiceResponse.fromEntity(invoice);
+    }
+}
@@ -0,0 +1,119 @@
+package com.hourglass.jobclocksync.benchmarks;
+
+import com.hourglass.jobclocksync.dto.InvoiceRequest;
+import com.hourglass.jobclocksync.dto.TimesheetRequest;
+import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Timesheet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Realistic payloads: a timesheet is one entry per day of a week, an invoice carries tens of line items.
+ */
+public final class Fixtures {
+    
+    public static final LocalDate WEEK_START = LocalDate.of(2024, 3, 4);
+    
+    private Fixtures() {
+    }
+    
+    public static TimesheetRequest timesheetRequest(int entries) {
+        TimesheetRequest request = new TimesheetRequest();
+        request.setWorkOrderId(UUID.randomUUID().toString());
+        request.setWeekStartDate(WEEK_START.toString());
+        request.setWeekEndDate(WEEK_START.plusDays(6).toString());
+        request.setNotes("Regular week, on site Monday to Friday");
+        
+        List<TimesheetRequest.TimesheetEntryRequest> entryRequests = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            TimesheetRequest.TimesheetEntryRequest entry = new TimesheetRequest.TimesheetEntryRequest();
+            entry.setDate(WEEK_START.plusDays(i % 7).toString());
+            entry.setHours(i % 7 < 5 ? 8.0 : 4.5);
+            entry.setDescription("Installation and testing, building " + (i + 1));
+            entry.setWorkOrderId(request.getWorkOrderId());
+            entryRequests.add(entry);
+        }
+        request.setEntries(entryRequests);
+        return request;
+    }
+    
+    public static Timesheet timesheet(int entries) {
+        TimesheetRequest request = timesheetRequest(entries);
+        Timesheet timesheet = new Timesheet();
+        timesheet.setId(UUID.randomUUID().toString());
+        timesheet.setVendorId(UUID.randomUUID().toString());
+        timesheet.setCompanyId(UUID.randomUUID().toString());
+        timesheet.setWorkOrderId(request.getWorkOrderId());
+        timesheet.setStatus(Timesheet.TimesheetStatus.SUBMITTED);
+        timesheet.setWeekStartDate(WEEK_START);
+        timesheet.setWeekEndDate(WEEK_START.plusDays(6));
+        timesheet.setNotes(request.getNotes());
+        
+        List<Timesheet.TimesheetEntry> timesheetEntries = new ArrayList<>(entries);
+        double totalHours = 0;
+        for (TimesheetRequest.TimesheetEntryRequest entry : request.getEntries()) {
+            timesheetEntries.add(new Timesheet.TimesheetEntry(
+                LocalDate.parse(entry.getDate()), entry.getHours(), entry.getDescription(), entry.getWorkOrderId()));
+            totalHours += entry.getHours();
+        }
+        timesheet.setEntries(timesheetEntries);
+        timesheet.setTotalHours(totalHours);
+        timesheet.setSubmittedDate(LocalDateTime.now());
+        timesheet.setCreatedAt(LocalDateTime.now());
+        timesheet.setUpdatedAt(LocalDateTime.now());
+        timesheet.setVersion(1L);
+        return timesheet;
+    }
+    
+    public static InvoiceRequest invoiceRequest(int items) {
+        InvoiceRequest request = new InvoiceRequest();
+        request.setWorkOrderId(UUID.randomUUID().toString());
+        request.setDueDate(WEEK_START.plusDays(30).toString());
+        
+        List<InvoiceRequest.InvoiceItemRequest> itemRequests = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            InvoiceRequest.InvoiceItemRequest item = new InvoiceRequest.InvoiceItemRequest();
+            item.setDescription("Labour line " + (i + 1));
+            item.setQuantity(1 + i % 8);
+            item.setUnitPrice(45.0 + i % 5 * 12.5);
+            itemRequests.add(item);
+        }
+        request.setItems(itemRequests);
+        return request;
+    }
+    
+    public static Invoice invoice(int items) {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID().toString());
+        invoice.setInvoiceNumber("INV-2024-0001");
+        invoice.setVendorId(UUID.randomUUID().toString());
+        invoice.setCompanyId(UUID.randomUUID().toString());
+        invoice.setWorkOrderId(UUID.randomUUID().toString());
+        invoice.setStatus(Invoice.InvoiceStatus.PENDING);
+        
+        List<Invoice.InvoiceItem> invoiceItems = new ArrayList<>(items);
+        double subtotal = 0;
+        for (InvoiceRequest.InvoiceItemRequest request : invoiceRequest(items).getItems()) {
+            Invoice.InvoiceItem item = new Invoice.InvoiceItem();
+            item.setDescription(request.getDescription());
+            item.setQuantity(request.getQuantity());
+            item.setUnitPrice(request.getUnitPrice());
+            item.setTotal(request.getQuantity() * request.getUnitPrice());
+            invoiceItems.add(item);
+            subtotal += item.getTotal();
+        }
+        invoice.setItems(invoiceItems);
+        invoice.setSubtotal(subtotal);
+        invoice.setTaxAmount(subtotal * 0.10);
+        invoice.setTotalAmount(subtotal * 1.10);
+        invoice.setDueDate(WEEK_START.plusDays(30).atStartOfDay());
+        invoice.setCreatedAt(LocalDateTime.now());
+        invoice.setUpdatedAt(LocalDateTime.now());
+        invoice.setVersion(1L);
+        return invoice;
+    }
+}
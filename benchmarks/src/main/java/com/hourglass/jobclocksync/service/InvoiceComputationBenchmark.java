@@ -0,0 +1,47 @@
+package com.hourglass.jobclocksync.service;
+
+import com.hourglass.jobclocksync.benchmarks.Fixtures;
+import com.hourglass.jobclocksync.dto.InvoiceRequest;
+import com.hourglass.jobclocksync.model.Invoice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line item conversion, subtotal and tax computation behind createInvoice (package-private
+ * InvoiceService.toEntity; the invoice number allocation and save are not included).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InvoiceComputationBenchmark {
+    
+    @Param({"10", "50"})
+    private int items;
+    
+    private final InvoiceService invoiceService = new InvoiceService();
+    private InvoiceRequest request;
+    
+    @Setup
+    public void setUp() {
+        request = Fixtures.invoiceRequest(items);
+    }
+    
+    @Benchmark
+    public Invoice toEntity() {
+        return invoiceService.toEntity(request, "vendor-1", "company-1", "INV-2024-0001");
+    }
+}
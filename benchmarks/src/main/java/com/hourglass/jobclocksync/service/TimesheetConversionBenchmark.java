@@ -0,0 +1,58 @@
+package com.hourglass.jobclocksync.service;
+
+import com.hourglass.jobclocksync.benchmarks.Fixtures;
+import com.hourglass.jobclocksync.dto.TimesheetRequest;
+import com.hourglass.jobclocksync.model.Timesheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request-to-document conversion and hour totals behind createTimesheet and the bulk import
+ * (package-private TimesheetService.toEntity, no database involved), with per-call date parsing
+ * as in createTimesheet and with the import's memoized parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TimesheetConversionBenchmark {
+    
+    @Param({"7", "31"})
+    private int entries;
+    
+    private final TimesheetService timesheetService = new TimesheetService();
+    private final Map<String, LocalDate> dates = new HashMap<>();
+    private TimesheetRequest request;
+    
+    @Setup
+    public void setUp() {
+        request = Fixtures.timesheetRequest(entries);
+    }
+    
+    @Benchmark
+    public Timesheet toEntity() {
+        return timesheetService.toEntity(request, "vendor-1", "company-1", LocalDate::parse);
+    }
+    
+    @Benchmark
+    public Timesheet toEntityMemoizedDates() {
+        return timesheetService.toEntity(request, "vendor-1", "company-1",
+            value -> dates.computeIfAbsent(value, LocalDate::parse));
+    }
+}
@@ -0,0 +1,84 @@
+package com.hourglass.jobclocksync.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. {@code parseCached} is the common request path (a token seen
+ * recently); {@code parseUncached} cycles through more distinct tokens than the cache holds, so
+ * every call pays for signature verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtUtilBenchmark {
+    
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long-for-hs256";
+    private static final int DISTINCT_TOKENS = 1 << 14;
+    
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String cachedToken;
+    private String[] tokens;
+    private int next;
+    
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        cachingJwtUtil = jwtUtil(10_000);
+        uncachedJwtUtil = jwtUtil(1);
+        
+        cachedToken = cachingJwtUtil.generateToken("vendor@hourglass.com", "user-1", "VENDOR", "session-1");
+        cachingJwtUtil.parseToken(cachedToken);
+        
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens[i] = uncachedJwtUtil.generateToken("vendor" + i + "@hourglass.com", "user-" + i, "VENDOR", "session-" + i);
+        }
+    }
+    
+    @Benchmark
+    public String generate() {
+        return cachingJwtUtil.generateToken("vendor@hourglass.com", "user-1", "VENDOR", "session-1");
+    }
+    
+    @Benchmark
+    public TokenClaims parseCached() {
+        return cachingJwtUtil.parseToken(cachedToken);
+    }
+    
+    @Benchmark
+    public TokenClaims parseUncached() {
+        next = (next + 1) & (DISTINCT_TOKENS - 1);
+        return uncachedJwtUtil.parseToken(tokens[next]);
+    }
+    
+    // JwtUtil is configured by Spring's @Value injection; set the same fields directly
+    private static JwtUtil jwtUtil(long verifiedCacheMaxSize) throws ReflectiveOperationException {
+        JwtUtil jwtUtil = new JwtUtil();
+        set(jwtUtil, "secret", SECRET);
+        set(jwtUtil, "expiration", TimeUnit.DAYS.toMillis(1));
+        set(jwtUtil, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+    
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
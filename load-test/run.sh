@@ -0,0 +1,8 @@
+#!/bin/sh
+# Installs the backend jar, then boots it against an in-memory MongoDB and runs the load test.
+# Options are passed through, e.g. ./run.sh --threads=64 --duration=120 --virtual-threads=true
+set -e
+cd "$(dirname "$0")"
+
+(cd ../backend && mvn -q -B install -DskipTests)
+mvn -q -B compile exec:java -Dexec.args="$*"
@@ -0,0 +1,90 @@
+package com.hourglass.jobclocksync.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Blocking JSON client over one shared connection pool. Every call is timed and handed to the
+ * {@link LatencyRecorder} under its endpoint template, e.g. {@code POST /timesheets/{id}/submit}.
+ */
+class ApiClient {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final LatencyRecorder recorder;
+    
+    ApiClient(String baseUrl, ObjectMapper objectMapper, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.recorder = recorder;
+    }
+    
+    /**
+     * Logs in through the real endpoint (BCrypt included) and returns the bearer token.
+     */
+    String login(String email, String password) throws IOException, InterruptedException {
+        JsonNode response = call("POST /auth/login", "POST", "/auth/login", null,
+            Map.of("email", email, "password", password));
+        if (response == null) {
+            throw new IllegalStateException("Login failed for " + email);
+        }
+        return response.get("token").asText();
+    }
+    
+    JsonNode get(String endpoint, String path, String token) throws IOException, InterruptedException {
+        return call(endpoint, "GET", path, token, null);
+    }
+    
+    JsonNode post(String endpoint, String path, String token, Object body) throws IOException, InterruptedException {
+        return call(endpoint, "POST", path, token, body);
+    }
+    
+    /**
+     * @return the parsed body, or null for an error status (which is recorded as an error)
+     */
+    private JsonNode call(String endpoint, String method, String path, String token, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            recorder.record(endpoint, start, System.nanoTime(), false);
+            throw e;
+        }
+        boolean ok = response.statusCode() < 400;
+        recorder.record(endpoint, start, System.nanoTime(), ok);
+        
+        if (!ok) {
+            return null;
+        }
+        return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+}
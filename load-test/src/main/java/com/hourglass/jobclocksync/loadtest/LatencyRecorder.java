@@ -0,0 +1,80 @@
+package com.hourglass.jobclocksync.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps every latency sample per endpoint once the warm-up is over; percentiles are exact,
+ * computed from the sorted samples at the end of the run.
+ */
+class LatencyRecorder {
+    
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+    private volatile long measureUntilNanos = Long.MAX_VALUE;
+    
+    void measureBetween(long fromNanos, long untilNanos) {
+        measureFromNanos = fromNanos;
+        measureUntilNanos = untilNanos;
+    }
+    
+    void record(String endpoint, long startNanos, long endNanos, boolean ok) {
+        if (startNanos < measureFromNanos || endNanos > measureUntilNanos) {
+            return;
+        }
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, key -> new Samples());
+        if (ok) {
+            endpointSamples.add(endNanos - startNanos);
+        } else {
+            endpointSamples.errors.incrementAndGet();
+        }
+    }
+    
+    /**
+     * One summary per endpoint, ordered by name.
+     */
+    List<EndpointSummary> summarize() {
+        double seconds = (measureUntilNanos - measureFromNanos) / 1e9;
+        return samples.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(entry -> entry.getValue().summarize(entry.getKey(), seconds))
+            .toList();
+    }
+    
+    record EndpointSummary(String endpoint, long count, long errors, double throughput,
+                           double p50Millis, double p99Millis, double maxMillis) {
+    }
+    
+    private static class Samples {
+        
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[1024];
+        private int size;
+        
+        synchronized void add(long latencyNanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+        }
+        
+        synchronized EndpointSummary summarize(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointSummary(endpoint, size, errors.get(), size / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+        
+        // Nearest-rank percentile, in milliseconds
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.hourglass.jobclocksync.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hourglass.jobclocksync.JobClockSyncApplication;
+import com.hourglass.jobclocksync.dto.TimesheetRequest;
+import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.model.WorkOrder;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: starts an in-memory MongoDB wire-protocol server, boots the backend against it on a
+ * random port, seeds data, logs users in and drives the weighted scenario mix from a fixed pool of client
+ * threads. Prints p50/p99 latency and throughput per endpoint and writes them to the results directory.
+ */
+public class LoadTest {
+    
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final Map<String, String> companyTokens = new ConcurrentHashMap<>();
+    private final List<String> vendorTokens = new ArrayList<>();
+    private final List<User> activeVendors = new ArrayList<>();
+    private final AtomicLong starvedApprovals = new AtomicLong();
+    private Seeder.SeedData seedData;
+    private ApiClient client;
+    
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongoServer.bind();
+        ConfigurableApplicationContext context = null;
+        try {
+            context = new SpringApplicationBuilder(JobClockSyncApplication.class).run(
+                "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/jobclocksync",
+                "--server.port=0",
+                "--management.server.port=-1",
+                // Users log in once at start, so keep access tokens valid for runs longer than 15 minutes
+                "--jwt.expiration=86400000",
+                "--spring.threads.virtual.enabled=" + config.virtualThreads,
+                // The in-memory server neither needs nor reports on the production indexes
+                "--spring.data.mongodb.auto-index-creation=false",
+                "--index-verification.enabled=false",
+                "--logging.level.root=WARN");
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            
+            LoadTest loadTest = new LoadTest(config);
+            loadTest.prepare(context, "http://localhost:" + port + "/api");
+            loadTest.run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            mongoServer.shutdownNow();
+        }
+        // Non-daemon netty event loop threads can outlive the closed context and keep exec:java waiting
+        System.exit(0);
+    }
+    
+    private void prepare(ConfigurableApplicationContext context, String baseUrl) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        seedData = new Seeder(context.getBean(MongoTemplate.class), context.getBean(PasswordEncoder.class), config).seed();
+        System.out.printf("Seeded %d companies, %d vendors in %.1fs%n",
+            config.companies, config.vendors, (System.nanoTime() - start) / 1e9);
+        
+        client = new ApiClient(baseUrl, objectMapper, recorder);
+        for (User company : seedData.companies()) {
+            companyTokens.put(company.getId(), client.login(company.getEmail(), Seeder.PASSWORD));
+        }
+        for (User vendor : seedData.vendors().subList(0, Math.min(config.activeUsers, seedData.vendors().size()))) {
+            activeVendors.add(vendor);
+            vendorTokens.add(client.login(vendor.getEmail(), Seeder.PASSWORD));
+        }
+    }
+    
+    private void run() throws IOException, InterruptedException {
+        List<Scenario> weighted = new ArrayList<>();
+        config.mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        recorder.measureBetween(measureFrom, measureUntil);
+        System.out.printf("Running %s with %d client threads: %ds warm-up, %ds measured (%s threads in the backend)%n",
+            config.mix, config.threads, config.warmupSeconds, config.durationSeconds,
+            config.virtualThreads ? "virtual" : "platform");
+        
+        ExecutorService workers = Executors.newFixedThreadPool(config.threads);
+        for (int i = 0; i < config.threads; i++) {
+            workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < measureUntil) {
+                    try {
+                        execute(weighted.get(random.nextInt(weighted.size())), random);
+                    } catch (IOException e) {
+                        // Already recorded as an error against the endpoint
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(config.warmupSeconds + config.durationSeconds + 60L, TimeUnit.SECONDS);
+        
+        report(recorder.summarize());
+    }
+    
+    private void execute(Scenario scenario, ThreadLocalRandom random) throws IOException, InterruptedException {
+        switch (scenario) {
+            case DASHBOARD -> client.get("GET /dashboard/vendor/stats", "/dashboard/vendor/stats",
+                vendorTokens.get(random.nextInt(vendorTokens.size())));
+            case SUBMIT -> submitTimesheet(random.nextInt(activeVendors.size()), random);
+            case APPROVE -> approveTimesheet();
+            case INVOICES -> client.get("GET /invoices", "/invoices?limit=50",
+                companyTokens.get(seedData.companies().get(random.nextInt(seedData.companies().size())).getId()));
+        }
+    }
+    
+    private void submitTimesheet(int vendorIndex, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String token = vendorTokens.get(vendorIndex);
+        List<WorkOrder> workOrders = seedData.workOrdersByVendor().get(activeVendors.get(vendorIndex).getId());
+        WorkOrder workOrder = workOrders.get(random.nextInt(workOrders.size()));
+        
+        JsonNode created = client.post("POST /timesheets", "/timesheets", token, timesheetRequest(workOrder.getId()));
+        if (created == null) {
+            return;
+        }
+        String id = created.get("id").asText();
+        JsonNode submitted = client.post("POST /timesheets/{id}/submit", "/timesheets/" + id + "/submit", token, null);
+        if (submitted != null) {
+            seedData.pendingApprovals().add(new Seeder.PendingApproval(id, workOrder.getCompanyId()));
+        }
+    }
+    
+    private void approveTimesheet() throws IOException, InterruptedException {
+        Seeder.PendingApproval pending = seedData.pendingApprovals().poll();
+        if (pending == null) {
+            // Approvals outran submissions; reported so a skewed mix is visible
+            starvedApprovals.incrementAndGet();
+            return;
+        }
+        client.post("POST /timesheets/{id}/approve", "/timesheets/" + pending.timesheetId() + "/approve",
+            companyTokens.get(pending.companyId()), null);
+    }
+    
+    private static TimesheetRequest timesheetRequest(String workOrderId) {
+        LocalDate weekStart = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        TimesheetRequest request = new TimesheetRequest();
+        request.setWorkOrderId(workOrderId);
+        request.setWeekStartDate(weekStart.toString());
+        request.setWeekEndDate(weekStart.plusDays(6).toString());
+        request.setNotes("Load test week");
+        
+        List<TimesheetRequest.TimesheetEntryRequest> entries = new ArrayList<>(5);
+        for (int day = 0; day < 5; day++) {
+            TimesheetRequest.TimesheetEntryRequest entry = new TimesheetRequest.TimesheetEntryRequest();
+            entry.setDate(weekStart.plusDays(day).toString());
+            entry.setHours(8.0);
+            entry.setDescription("On site");
+            entry.setWorkOrderId(workOrderId);
+            entries.add(entry);
+        }
+        request.setEntries(entries);
+        return request;
+    }
+    
+    private void report(List<LatencyRecorder.EndpointSummary> summaries) throws IOException {
+        System.out.printf("%n%-32s %9s %9s %9s %9s %9s %7s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        double totalThroughput = 0;
+        for (LatencyRecorder.EndpointSummary summary : summaries) {
+            System.out.printf("%-32s %9d %9.1f %9.2f %9.2f %9.2f %7d%n", summary.endpoint(), summary.count(),
+                summary.throughput(), summary.p50Millis(), summary.p99Millis(), summary.maxMillis(), summary.errors());
+            totalThroughput += summary.throughput();
+        }
+        System.out.printf("%-32s %9s %9.1f%n", "total", "", totalThroughput);
+        if (starvedApprovals.get() > 0) {
+            System.out.printf("%d approvals skipped: no submitted timesheets left%n", starvedApprovals.get());
+        }
+        
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("startedAt", LocalDateTime.now().minusSeconds(config.warmupSeconds + config.durationSeconds));
+        results.put("config", config);
+        results.put("starvedApprovals", starvedApprovals.get());
+        results.put("endpoints", summaries);
+        Path directory = Path.of(config.resultsDir);
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), results);
+        System.out.println("Results written to " + file);
+    }
+}
@@ -0,0 +1,86 @@
+package com.hourglass.jobclocksync.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default so a bare run works.
+ */
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
+class LoadTestConfig {
+    
+    private static final Set<String> OPTIONS = Set.of(
+        "companies", "vendors", "work-orders-per-vendor", "timesheets-per-vendor", "invoices-per-vendor",
+        "jobs-per-company", "active-users", "threads", "warmup", "duration", "virtual-threads", "results-dir", "mix");
+    
+    int companies = 20;
+    int vendors = 200;
+    int workOrdersPerVendor = 3;
+    int timesheetsPerVendor = 50;
+    int invoicesPerVendor = 20;
+    int jobsPerCompany = 20;
+    // Vendors that log in and drive traffic; every company logs in
+    int activeUsers = 50;
+    int threads = 32;
+    int warmupSeconds = 10;
+    int durationSeconds = 60;
+    boolean virtualThreads = false;
+    String resultsDir = "results";
+    Map<Scenario, Integer> mix = parseMix("dashboard:30,submit:20,approve:20,invoices:30");
+    
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = arg.substring(2, separator);
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: " + name);
+            }
+            options.put(name, arg.substring(separator + 1));
+        }
+        
+        LoadTestConfig config = new LoadTestConfig();
+        config.companies = intOption(options, "companies", config.companies);
+        config.vendors = intOption(options, "vendors", config.vendors);
+        config.workOrdersPerVendor = intOption(options, "work-orders-per-vendor", config.workOrdersPerVendor);
+        config.timesheetsPerVendor = intOption(options, "timesheets-per-vendor", config.timesheetsPerVendor);
+        config.invoicesPerVendor = intOption(options, "invoices-per-vendor", config.invoicesPerVendor);
+        config.jobsPerCompany = intOption(options, "jobs-per-company", config.jobsPerCompany);
+        config.activeUsers = intOption(options, "active-users", config.activeUsers);
+        config.threads = intOption(options, "threads", config.threads);
+        config.warmupSeconds = intOption(options, "warmup", config.warmupSeconds);
+        config.durationSeconds = intOption(options, "duration", config.durationSeconds);
+        config.virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        config.resultsDir = options.getOrDefault("results-dir", config.resultsDir);
+        if (options.containsKey("mix")) {
+            config.mix = parseMix(options.get("mix"));
+        }
+        if (config.companies < 1 || config.vendors < 1 || config.workOrdersPerVendor < 1 || config.activeUsers < 1
+                || config.threads < 1 || config.durationSeconds < 1) {
+            throw new IllegalArgumentException("companies, vendors, work-orders-per-vendor, active-users, threads and duration must be positive");
+        }
+        return config;
+    }
+    
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+    
+    // e.g. "dashboard:30,submit:20,approve:20,invoices:30"
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.trim().split(":");
+            mix.put(Scenario.fromName(weight[0]), Integer.parseInt(weight[1]));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hourglass.jobclocksync.loadtest;
+
+/**
+ * User journeys in the request mix; each one issues one or two API calls, recorded per endpoint.
+ */
+enum Scenario {
+    // Vendor opens the dashboard
+    DASHBOARD("dashboard"),
+    // Vendor creates a timesheet and submits it
+    SUBMIT("submit"),
+    // Company approves the oldest submitted timesheet it knows about
+    APPROVE("approve"),
+    // Company lists its most recent invoices
+    INVOICES("invoices");
+    
+    final String optionName;
+    
+    Scenario(String optionName) {
+        this.optionName = optionName;
+    }
+    
+    static Scenario fromName(String name) {
+        for (Scenario scenario : values()) {
+            if (scenario.optionName.equalsIgnoreCase(name)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + name);
+    }
+}
@@ -0,0 +1,251 @@
+package com.hourglass.jobclocksync.loadtest;
+
+import com.hourglass.jobclocksync.model.Invoice;
+import com.hourglass.jobclocksync.model.Job;
+import com.hourglass.jobclocksync.model.Timesheet;
+import com.hourglass.jobclocksync.model.User;
+import com.hourglass.jobclocksync.model.WorkOrder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes the configured volumes straight through {@link MongoTemplate}, bypassing the API. The
+ * generator is seeded so two runs with the same options load the same data.
+ */
+class Seeder {
+    
+    static final String PASSWORD = "loadtest123";
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final LoadTestConfig config;
+    private final Random random = new Random(42);
+    private final LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    
+    Seeder(MongoTemplate mongoTemplate, PasswordEncoder passwordEncoder, LoadTestConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.config = config;
+    }
+    
+    record SeedData(List<User> companies, List<User> vendors, Map<String, List<WorkOrder>> workOrdersByVendor,
+                    Queue<PendingApproval> pendingApprovals) {
+    }
+    
+    record PendingApproval(String timesheetId, String companyId) {
+    }
+    
+    SeedData seed() {
+        // One hash for every account: BCrypt per user would dominate seeding time
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        List<User> companies = users(User.UserRole.COMPANY, config.companies, passwordHash);
+        List<User> vendors = users(User.UserRole.VENDOR, config.vendors, passwordHash);
+        insert(companies, User.class);
+        insert(vendors, User.class);
+        
+        Map<String, List<WorkOrder>> workOrdersByVendor = new HashMap<>();
+        List<WorkOrder> workOrders = new ArrayList<>();
+        for (int v = 0; v < vendors.size(); v++) {
+            List<WorkOrder> vendorWorkOrders = new ArrayList<>();
+            for (int w = 0; w < config.workOrdersPerVendor; w++) {
+                User company = companies.get((v + w) % companies.size());
+                vendorWorkOrders.add(workOrder(workOrders.size(), company.getId(), vendors.get(v).getId()));
+                workOrders.add(vendorWorkOrders.get(w));
+            }
+            workOrdersByVendor.put(vendors.get(v).getId(), vendorWorkOrders);
+        }
+        insert(workOrders, WorkOrder.class);
+        
+        Queue<PendingApproval> pendingApprovals = new ConcurrentLinkedQueue<>();
+        List<Timesheet> timesheets = new ArrayList<>();
+        List<Invoice> invoices = new ArrayList<>();
+        int invoiceNumber = 0;
+        for (User vendor : vendors) {
+            List<WorkOrder> vendorWorkOrders = workOrdersByVendor.get(vendor.getId());
+            if (vendorWorkOrders.isEmpty()) {
+                continue;
+            }
+            for (int t = 0; t < config.timesheetsPerVendor; t++) {
+                Timesheet timesheet = timesheet(vendorWorkOrders.get(t % vendorWorkOrders.size()), t);
+                timesheets.add(timesheet);
+                if (timesheet.getStatus() == Timesheet.TimesheetStatus.SUBMITTED) {
+                    pendingApprovals.add(new PendingApproval(timesheet.getId(), timesheet.getCompanyId()));
+                }
+                if (timesheets.size() == BATCH_SIZE) {
+                    insert(timesheets, Timesheet.class);
+                    timesheets.clear();
+                }
+            }
+            for (int i = 0; i < config.invoicesPerVendor; i++) {
+                invoices.add(invoice(vendorWorkOrders.get(i % vendorWorkOrders.size()), i, ++invoiceNumber));
+                if (invoices.size() == BATCH_SIZE) {
+                    insert(invoices, Invoice.class);
+                    invoices.clear();
+                }
+            }
+        }
+        insert(timesheets, Timesheet.class);
+        insert(invoices, Invoice.class);
+        
+        List<Job> jobs = new ArrayList<>();
+        for (User company : companies) {
+            for (int j = 0; j < config.jobsPerCompany; j++) {
+                jobs.add(job(company.getId(), j, vendors));
+            }
+        }
+        insert(jobs, Job.class);
+        
+        return new SeedData(companies, vendors, workOrdersByVendor, pendingApprovals);
+    }
+    
+    private List<User> users(User.UserRole role, int count, String passwordHash) {
+        String prefix = role.name().toLowerCase();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime created = LocalDateTime.now().minusDays(365 - i % 365);
+            users.add(new User(UUID.randomUUID().toString(), prefix + "-" + i + "@loadtest.local", passwordHash,
+                "Load test " + prefix + " " + i, role, true, created, created));
+        }
+        return users;
+    }
+    
+    private WorkOrder workOrder(int index, String companyId, String vendorId) {
+        LocalDateTime created = LocalDateTime.now().minusDays(90 + random.nextInt(180));
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setId(UUID.randomUUID().toString());
+        workOrder.setWorkOrderNumber(String.format("WO-LT-%06d", index + 1));
+        workOrder.setTitle("Site maintenance " + (index + 1));
+        workOrder.setDescription("Recurring maintenance visits");
+        workOrder.setCompanyId(companyId);
+        workOrder.setVendorId(vendorId);
+        workOrder.setStatus(random.nextInt(4) == 0 ? WorkOrder.WorkOrderStatus.ASSIGNED : WorkOrder.WorkOrderStatus.IN_PROGRESS);
+        workOrder.setAssignedDate(created.plusDays(1));
+        workOrder.setDueDate(created.plusDays(365));
+        workOrder.setCreatedAt(created);
+        workOrder.setUpdatedAt(created.plusDays(1));
+        workOrder.setVersion(1L);
+        return workOrder;
+    }
+    
+    // Week t weeks back; roughly 10% draft, 20% submitted, 60% approved and 10% rejected
+    private Timesheet timesheet(WorkOrder workOrder, int weeksBack) {
+        LocalDate weekStart = currentWeek.minusWeeks(weeksBack + 1L);
+        LocalDateTime created = weekStart.plusDays(4).atTime(17, random.nextInt(60));
+        int roll = random.nextInt(10);
+        
+        Timesheet timesheet = new Timesheet();
+        timesheet.setId(UUID.randomUUID().toString());
+        timesheet.setVendorId(workOrder.getVendorId());
+        timesheet.setCompanyId(workOrder.getCompanyId());
+        timesheet.setWorkOrderId(workOrder.getId());
+        timesheet.setWeekStartDate(weekStart);
+        timesheet.setWeekEndDate(weekStart.plusDays(6));
+        timesheet.setEntries(entries(weekStart, workOrder.getId()));
+        timesheet.setTotalHours(timesheet.getEntries().stream().mapToDouble(Timesheet.TimesheetEntry::getHours).sum());
+        timesheet.setCreatedAt(created);
+        timesheet.setUpdatedAt(created);
+        timesheet.setVersion(1L);
+        if (roll == 0) {
+            timesheet.setStatus(Timesheet.TimesheetStatus.DRAFT);
+        } else {
+            timesheet.setSubmittedDate(created.plusDays(3));
+            timesheet.setUpdatedAt(timesheet.getSubmittedDate());
+            if (roll < 3) {
+                timesheet.setStatus(Timesheet.TimesheetStatus.SUBMITTED);
+            } else {
+                timesheet.setStatus(roll < 9 ? Timesheet.TimesheetStatus.APPROVED : Timesheet.TimesheetStatus.REJECTED);
+                timesheet.setApprovedDate(roll < 9 ? created.plusDays(5) : null);
+                timesheet.setUpdatedAt(created.plusDays(5));
+                timesheet.setVersion(3L);
+            }
+        }
+        return timesheet;
+    }
+    
+    private static List<Timesheet.TimesheetEntry> entries(LocalDate weekStart, String workOrderId) {
+        List<Timesheet.TimesheetEntry> entries = new ArrayList<>(5);
+        for (int day = 0; day < 5; day++) {
+            entries.add(new Timesheet.TimesheetEntry(weekStart.plusDays(day), 8.0, "On site", workOrderId));
+        }
+        return entries;
+    }
+    
+    private Invoice invoice(WorkOrder workOrder, int monthsBack, int number) {
+        LocalDateTime created = LocalDateTime.now().minusMonths(monthsBack).minusDays(random.nextInt(28));
+        List<Invoice.InvoiceItem> items = new ArrayList<>();
+        double subtotal = 0;
+        for (int i = 0; i < 3 + random.nextInt(8); i++) {
+            int quantity = 1 + random.nextInt(40);
+            double unitPrice = 45.0 + random.nextInt(5) * 12.5;
+            items.add(new Invoice.InvoiceItem("Labour line " + (i + 1), quantity, unitPrice, quantity * unitPrice));
+            subtotal += quantity * unitPrice;
+        }
+        Invoice.InvoiceStatus[] statuses = Invoice.InvoiceStatus.values();
+        
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID().toString());
+        invoice.setInvoiceNumber(String.format("INV-LT-%07d", number));
+        invoice.setVendorId(workOrder.getVendorId());
+        invoice.setCompanyId(workOrder.getCompanyId());
+        invoice.setWorkOrderId(workOrder.getId());
+        invoice.setStatus(monthsBack > 2 ? Invoice.InvoiceStatus.PAID : statuses[random.nextInt(statuses.length)]);
+        invoice.setItems(items);
+        invoice.setSubtotal(subtotal);
+        invoice.setTaxAmount(subtotal * 0.10);
+        invoice.setTotalAmount(subtotal * 1.10);
+        invoice.setDueDate(created.plusDays(30));
+        invoice.setPaidDate(invoice.getStatus() == Invoice.InvoiceStatus.PAID ? created.plusDays(20) : null);
+        invoice.setCreatedAt(created);
+        invoice.setUpdatedAt(created);
+        invoice.setVersion(1L);
+        return invoice;
+    }
+    
+    private Job job(String companyId, int index, List<User> vendors) {
+        LocalDateTime created = LocalDateTime.now().minusDays(random.nextInt(120));
+        List<String> applicantIds = new ArrayList<>();
+        for (int i = random.nextInt(Math.min(10, vendors.size()) + 1); i > 0; i--) {
+            String vendorId = vendors.get(random.nextInt(vendors.size())).getId();
+            if (!applicantIds.contains(vendorId)) {
+                applicantIds.add(vendorId);
+            }
+        }
+        
+        Job job = new Job();
+        job.setId(UUID.randomUUID().toString());
+        job.setTitle("Field technician " + (index + 1));
+        job.setDescription("Installation and servicing of site equipment");
+        job.setCompanyId(companyId);
+        job.setStatus(random.nextInt(4) == 0 ? Job.JobStatus.CLOSED : Job.JobStatus.OPEN);
+        job.setRequiredSkills(List.of("electrical", "hvac"));
+        job.setLocation("Remote");
+        job.setSalaryMin(40000.0);
+        job.setSalaryMax(65000.0);
+        job.setEmploymentType("CONTRACT");
+        job.setApplicantIds(applicantIds);
+        job.setCreatedAt(created);
+        job.setUpdatedAt(created);
+        return job;
+    }
+    
+    private <T> void insert(List<T> documents, Class<T> type) {
+        for (int from = 0; from < documents.size(); from += BATCH_SIZE) {
+            mongoTemplate.insert(documents.subList(from, Math.min(from + BATCH_SIZE, documents.size())), type);
+        }
+    }
+}
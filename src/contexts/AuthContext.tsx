@@ -87,6 +87,8 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
   };
 
   const logout = () => {
+    // Revoke server-side without waiting; reads the tokens before they are cleared below
+    void api.logout();
     // Clear state synchronously
     setUser(null);
     tokenStorage.remove();
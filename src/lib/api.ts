@@ -25,6 +25,7 @@ const API_BASE_URL = getApiBaseUrl();
 
 // Token management
 const TOKEN_KEY = "hourglass_token";
+const REFRESH_TOKEN_KEY = "hourglass_refresh_token";
 const USER_KEY = "hourglass_user";
 
 export const tokenStorage = {
@@ -34,14 +35,71 @@ export const tokenStorage = {
   set: (token: string): void => {
     localStorage.setItem(TOKEN_KEY, token);
   },
+  getRefresh: (): string | null => {
+    return localStorage.getItem(REFRESH_TOKEN_KEY);
+  },
+  setRefresh: (refreshToken: string): void => {
+    localStorage.setItem(REFRESH_TOKEN_KEY, refreshToken);
+  },
   remove: (): void => {
     localStorage.removeItem(TOKEN_KEY);
+    localStorage.removeItem(REFRESH_TOKEN_KEY);
   },
   exists: (): boolean => {
     return localStorage.getItem(TOKEN_KEY) !== null;
   },
 };
 
+// Access tokens are short-lived: on a 401, trade the refresh token for a new pair once.
+// Concurrent 401s share the same refresh call, since each refresh token can only be used once.
+let refreshInFlight: Promise<boolean> | null = null;
+
+const refreshSession = (): Promise<boolean> => {
+  const refreshToken = tokenStorage.getRefresh();
+  if (!refreshToken) {
+    return Promise.resolve(false);
+  }
+  if (!refreshInFlight) {
+    refreshInFlight = fetch(`${API_BASE_URL}/auth/refresh`, {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({ refreshToken }),
+    })
+      .then(async (response) => {
+        if (!response.ok) {
+          return false;
+        }
+        const data: LoginResponse = await response.json();
+        tokenStorage.set(data.token);
+        tokenStorage.setRefresh(data.refreshToken);
+        return true;
+      })
+      .catch(() => false)
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
+// fetch with the current access token, refreshing and retrying once if it has expired
+const fetchWithAuth = async (url: string, options: RequestInit = {}): Promise<Response> => {
+  const send = () =>
+    fetch(url, {
+      ...options,
+      headers: {
+        ...createAuthHeaders(true),
+        ...options.headers,
+      },
+    });
+
+  const response = await send();
+  if (response.status === 401 && (await refreshSession())) {
+    return send();
+  }
+  return response;
+};
+
 // Helper function to create headers with authentication
 const createAuthHeaders = (includeAuth: boolean = true): HeadersInit => {
   const headers: HeadersInit = {
@@ -64,6 +122,9 @@ export interface LoginResponse {
   email: string;
   name: string;
   role: string;
+  refreshToken: string;
+  // Access token lifetime in seconds
+  expiresIn: number;
 }
 
 export interface UserResponse {
@@ -107,6 +168,47 @@ export interface DashboardStats {
   monthlySpend?: number;
 }
 
+// Largest page the backend serves
+const LIST_PAGE_SIZE = 200;
+
+const authenticatedFetch = async (endpoint: string, options: RequestInit = {}): Promise<Response> => {
+  const token = tokenStorage.get();
+  if (!token) {
+    throw new Error("No token found. Please login again.");
+  }
+
+  const response = await fetchWithAuth(`${API_BASE_URL}${endpoint}`, options);
+
+  if (!response.ok) {
+    if (response.status === 401) {
+      tokenStorage.remove();
+      localStorage.removeItem(USER_KEY);
+      throw new Error("Session expired. Please login again.");
+    }
+    const error = await response.json().catch(() => ({ error: "Request failed" }));
+    throw new Error(error.error || "Request failed");
+  }
+
+  return response;
+};
+
+export interface SyncChanges<T> {
+  created: T[];
+  updated: T[];
+  deleted: string[];
+}
+
+// Pass watermark back as `since`; when hasMore is true, sync again straight away with the cursor
+export interface SyncResponse {
+  watermark: string | null;
+  hasMore: boolean;
+  cursor: string | null;
+  timesheets: SyncChanges<import("@/types/timesheet").Timesheet>;
+  invoices: SyncChanges<import("@/types/invoice").Invoice>;
+  workOrders: SyncChanges<WorkOrder>;
+  jobs: SyncChanges<import("@/types/job").Job>;
+}
+
 export const api = {
   login: async (email: string, password: string): Promise<LoginResponse> => {
     try {
@@ -125,6 +227,7 @@ export const api = {
       
       if (data.token) {
         tokenStorage.set(data.token);
+        tokenStorage.setRefresh(data.refreshToken);
       }
       
       return data;
@@ -136,15 +239,24 @@ export const api = {
     }
   },
 
+  // Revokes the session server-side; local tokens are cleared by the caller
+  logout: async (): Promise<void> => {
+    const refreshToken = tokenStorage.getRefresh();
+    await fetch(`${API_BASE_URL}/auth/logout`, {
+      method: "POST",
+      headers: createAuthHeaders(true),
+      body: JSON.stringify({ refreshToken }),
+    }).catch(() => undefined);
+  },
+
   getCurrentUser: async (): Promise<UserResponse> => {
     const token = tokenStorage.get();
     if (!token) {
       throw new Error("No token found. Please login again.");
     }
 
-    const response = await fetch(`${API_BASE_URL}/auth/me`, {
+    const response = await fetchWithAuth(`${API_BASE_URL}/auth/me`, {
       method: "GET",
-      headers: createAuthHeaders(true),
     });
 
     if (!response.ok) {
@@ -161,7 +273,7 @@ export const api = {
 
   // Work Orders
   getWorkOrders: async (): Promise<WorkOrder[]> => {
-    return api.authenticatedRequest<WorkOrder[]>("/work-orders");
+    return api.authenticatedList<WorkOrder>("/work-orders");
   },
 
   createWorkOrder: async (workOrder: {
@@ -197,9 +309,19 @@ export const api = {
     return api.authenticatedRequest<DashboardStats>("/dashboard/company/stats");
   },
 
+  // Delta sync; omit since for everything. A 410 means the watermark is too old: sync again without it
+  sync: async (since?: string, cursor?: string): Promise<SyncResponse> => {
+    const query = cursor
+      ? `?cursor=${encodeURIComponent(cursor)}`
+      : since
+        ? `?since=${encodeURIComponent(since)}`
+        : "";
+    return api.authenticatedRequest<SyncResponse>(`/sync${query}`);
+  },
+
   // Jobs
   getJobs: async (): Promise<import("@/types/job").Job[]> => {
-    return api.authenticatedRequest<import("@/types/job").Job[]>("/jobs");
+    return api.authenticatedList<import("@/types/job").Job>("/jobs");
   },
 
   createJob: async (job: {
@@ -239,18 +361,18 @@ export const api = {
   },
 
   getJobApplicants: async (id: string): Promise<UserResponse[]> => {
-    return api.authenticatedRequest<UserResponse[]>(`/jobs/${id}/applicants`);
+    return api.authenticatedList<UserResponse>(`/jobs/${id}/applicants`);
   },
 
-  applyForJob: async (id: string): Promise<import("@/types/job").Job> => {
-    return api.authenticatedRequest<import("@/types/job").Job>(`/jobs/${id}/apply`, {
+  applyForJob: async (id: string): Promise<import("@/types/job").JobApplication> => {
+    return api.authenticatedRequest<import("@/types/job").JobApplication>(`/jobs/${id}/apply`, {
       method: "POST",
     });
   },
 
   // Timesheets
   getTimesheets: async (): Promise<import("@/types/timesheet").Timesheet[]> => {
-    return api.authenticatedRequest<import("@/types/timesheet").Timesheet[]>("/timesheets");
+    return api.authenticatedList<import("@/types/timesheet").Timesheet>("/timesheets");
   },
 
   createTimesheet: async (timesheet: {
@@ -292,7 +414,7 @@ export const api = {
 
   // Invoices
   getInvoices: async (): Promise<import("@/types/invoice").Invoice[]> => {
-    return api.authenticatedRequest<import("@/types/invoice").Invoice[]>("/invoices");
+    return api.authenticatedList<import("@/types/invoice").Invoice>("/invoices");
   },
 
   createInvoice: async (invoice: {
@@ -336,7 +458,7 @@ export const api = {
 
   // Vendors (for company to get vendor list)
   getVendors: async (): Promise<UserResponse[]> => {
-    return api.authenticatedRequest<UserResponse[]>("/vendors");
+    return api.authenticatedList<UserResponse>("/vendors");
   },
 
   // Generic authenticated request helper
@@ -344,30 +466,24 @@ export const api = {
     endpoint: string,
     options: RequestInit = {}
   ): Promise<T> => {
-    const token = tokenStorage.get();
-    if (!token) {
-      throw new Error("No token found. Please login again.");
-    }
+    const response = await authenticatedFetch(endpoint, options);
+    return response.json();
+  },
 
-    const response = await fetch(`${API_BASE_URL}${endpoint}`, {
-      ...options,
-      headers: {
-        ...createAuthHeaders(true),
-        ...options.headers,
-      },
-    });
+  // List endpoints return one page at a time; follow X-Next-Cursor until the last page
+  authenticatedList: async <T>(endpoint: string): Promise<T[]> => {
+    const separator = endpoint.includes("?") ? "&" : "?";
+    const items: T[] = [];
+    let cursor: string | null = null;
 
-    if (!response.ok) {
-      if (response.status === 401) {
-        tokenStorage.remove();
-        localStorage.removeItem(USER_KEY);
-        throw new Error("Session expired. Please login again.");
-      }
-      const error = await response.json().catch(() => ({ error: "Request failed" }));
-      throw new Error(error.error || "Request failed");
-    }
+    do {
+      const query = `${separator}limit=${LIST_PAGE_SIZE}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ""}`;
+      const response = await authenticatedFetch(`${endpoint}${query}`);
+      items.push(...((await response.json()) as T[]));
+      cursor = response.headers.get("X-Next-Cursor");
+    } while (cursor);
 
-    return response.json();
+    return items;
   },
 };
 
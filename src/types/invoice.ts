@@ -22,6 +22,7 @@ export interface Invoice {
   paidDate?: string;
   createdAt: string;
   updatedAt: string;
+  version?: number;
 }
 
 export const INVOICE_STATUS_LABELS: Record<InvoiceStatus, string> = {
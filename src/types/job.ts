@@ -17,6 +17,12 @@ export interface Job {
   updatedAt: string;
 }
 
+export interface JobApplication {
+  jobId: string;
+  vendorId: string;
+  alreadyApplied: boolean;
+}
+
 export const JOB_STATUS_LABELS: Record<JobStatus, string> = {
   DRAFT: "Draft",
   OPEN: "Open",
@@ -22,6 +22,7 @@ export interface Timesheet {
   approvedDate?: string;
   createdAt: string;
   updatedAt: string;
+  version?: number;
 }
 
 export const TIMESHEET_STATUS_LABELS: Record<TimesheetStatus, string> = {
@@ -19,6 +19,7 @@ export interface WorkOrder {
   completedDate?: string;
   createdAt: string;
   updatedAt: string;
+  version?: number;
 }
 
 export const WORK_ORDER_STATUS_LABELS: Record<WorkOrderStatus, string> = {